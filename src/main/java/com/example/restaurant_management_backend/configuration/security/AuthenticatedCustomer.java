@@ -0,0 +1,30 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.jpa.model.PrivilegeName;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Set;
+
+/**
+ * Principal put into the security context by JwtAuthFilter, so it lives exactly as long as the request. Carries the
+ * customer id and privilege, which makes ownership checks in-memory comparisons. Holds no password.
+ */
+@Getter
+public class AuthenticatedCustomer extends User {
+
+    private final Long id;
+    private final PrivilegeName privilegeName;
+
+    public AuthenticatedCustomer(Long id, String email, PrivilegeName privilegeName) {
+        super(email, "", Set.of(new SimpleGrantedAuthority(privilegeName.name())));
+        this.id = id;
+        this.privilegeName = privilegeName;
+        eraseCredentials();
+    }
+
+    public boolean isAdmin() {
+        return PrivilegeName.ADMIN_PRIVILEGE.equals(privilegeName);
+    }
+}
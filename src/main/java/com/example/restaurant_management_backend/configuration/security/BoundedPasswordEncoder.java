@@ -0,0 +1,103 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder used for logging in, registering and resetting passwords. Hashing runs on a small dedicated pool,
+ * so a login storm uses at most password-hashing.threads cores. When password-hashing.queue-capacity hashes are
+ * already waiting, new ones fail at once with 503 instead of tying up request threads, which leaves the rest of
+ * the request threads free for menu and order requests.
+ * Metrics are published under executor.* with name=password.hashing and as password.hashing.rejected.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final String TOO_MANY_LOGINS = "Zbyt wiele prób logowania w tej chwili, spróbuj ponownie za chwilę";
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    @Autowired
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry,
+                                  @Value("${password-hashing.threads:2}") int threads,
+                                  @Value("${password-hashing.queue-capacity:16}") int queueCapacity) {
+        this(meterRegistry, threads, queueCapacity, new BCryptPasswordEncoder());
+    }
+
+    BoundedPasswordEncoder(MeterRegistry meterRegistry, int threads, int queueCapacity, PasswordEncoder delegate) {
+        this.delegate = delegate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(executor, "password.hashing", List.of()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashes refused because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException(TOO_MANY_LOGINS);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException(TOO_MANY_LOGINS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
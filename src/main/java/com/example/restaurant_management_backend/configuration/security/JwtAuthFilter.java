@@ -1,8 +1,7 @@
 package com.example.restaurant_management_backend.configuration.security;
 
 import com.example.restaurant_management_backend.services.CustomerUserDetailsService;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,14 +10,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 
@@ -27,17 +22,17 @@ import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final CustomerUserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
-    private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
+    private final RateLimiter rateLimiter;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         // Rate limiting logic
-        String clientIp = request.getRemoteAddr();
-        Bucket bucket = bucketCache.computeIfAbsent(clientIp, this::createNewBucket);
-        if (!bucket.tryConsume(1)) {
+        RateLimiter.RouteGroup routeGroup = RateLimiter.RouteGroup.of(request.getRequestURI());
+        if (!rateLimiter.tryConsume(routeGroup, request.getRemoteAddr())) {
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.getWriter().write("Za dużo żądań - limit to 50 żądań na sekundę");
+            response.getWriter().write("Za dużo żądań - limit to " + rateLimiter.getLimit(routeGroup)
+                    + " żądań na sekundę");
             return;
         }
 
@@ -48,21 +43,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
         String jwtToken = authHeader.substring(7);
-        String userEmail = jwtUtils.extractUsername(jwtToken);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-            if (jwtUtils.isTokenValid(jwtToken, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
-                        null, userDetails.getAuthorities());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Signature and expiration are checked while parsing, the subject is the email the token was issued to
+            String userEmail = jwtUtils.parseValidClaims(jwtToken).map(Claims::getSubject).orElse(null);
+            if (userEmail != null) {
+                // Carries the customer id and privilege for ownership checks later in this request
+                AuthenticatedCustomer customer = userDetailsService.loadAuthenticatedUser(userEmail);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(customer,
+                        null, customer.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
-
-    private Bucket createNewBucket(String ip) {
-        return Bucket.builder()
-                .addLimit(Bandwidth.simple(50, Duration.ofSeconds(1)))
-                .build();
-    }
 }
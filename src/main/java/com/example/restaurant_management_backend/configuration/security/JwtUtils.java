@@ -1,6 +1,8 @@
 package com.example.restaurant_management_backend.configuration.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -12,6 +14,7 @@ import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Component
@@ -19,10 +22,27 @@ public class JwtUtils {
 
     @Getter
     private final SecretKey secretKey;
+    // Immutable and thread safe, built once instead of for every parsed token
+    private final JwtParser parser;
     private final long validationTime = Duration.ofHours(10).toMillis();
 
     public JwtUtils() {
         this.secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+    }
+
+    /**
+     * Parses the token once, checking its signature and expiration. Returns empty when the token is malformed,
+     * signed with another key or expired.
+     */
+    public Optional<Claims> parseValidClaims(String token) {
+        try {
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     public String extractUsername(String token) {
@@ -36,11 +56,7 @@ public class JwtUtils {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             // Token is invalid or expired, return null
             throw new IllegalStateException("Nieprawidłowy token");
@@ -66,21 +82,8 @@ public class JwtUtils {
     }
 
     public boolean isTokenValid(String token, String username) {
-        try {
-            final String extractedUsername = extractUsername(token);
-            return extractedUsername != null && extractedUsername.equals(username) && !isTokenExpired(token);
-        } catch (Exception e) {
-            // Any exception during validation should result in returning false
-            return false;
-        }
-    }
-
-    private boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        Optional<Claims> claims = parseValidClaims(token);
+        return claims.isPresent() && username != null && username.equals(claims.get().getSubject());
     }
 
     public Date extractExpiration(String token) {
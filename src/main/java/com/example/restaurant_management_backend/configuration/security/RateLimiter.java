@@ -0,0 +1,81 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.services.BoundedExpiringCache;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per client and route group request limits. Clients idle for longer than rate-limit.idle-expiry-seconds are dropped
+ * and at most rate-limit.max-clients buckets are kept, least recently used first, however many addresses send
+ * requests.
+ */
+@Component
+public class RateLimiter {
+
+    public enum RouteGroup {
+        AUTH, ORDERING, PUBLIC_MENU, DEFAULT;
+
+        public static RouteGroup of(String path) {
+            if (path.startsWith("/auth/")) {
+                return AUTH;
+            }
+            if (path.startsWith("/api/orders/") || path.startsWith("/api/reservations")
+                    || path.startsWith("/api/coupons/")) {
+                return ORDERING;
+            }
+            if (path.startsWith("/api/meals/") || path.startsWith("/api/categories/")
+                    || path.startsWith("/api/photos/") || path.startsWith("/api/opinions/")) {
+                return PUBLIC_MENU;
+            }
+            return DEFAULT;
+        }
+    }
+
+    private static final int SEGMENTS = 64;
+    private final BoundedExpiringCache<Key, Bucket> buckets;
+    private final Map<RouteGroup, Integer> limits = new EnumMap<>(RouteGroup.class);
+
+    private record Key(RouteGroup group, String client) {
+    }
+
+    public RateLimiter(@Value("${rate-limit.max-clients:100000}") int maxClients,
+                       @Value("${rate-limit.idle-expiry-seconds:60}") long idleExpirySeconds,
+                       @Value("${rate-limit.auth.per-second:5}") int authLimit,
+                       @Value("${rate-limit.ordering.per-second:10}") int orderingLimit,
+                       @Value("${rate-limit.public-menu.per-second:50}") int publicMenuLimit,
+                       @Value("${rate-limit.default.per-second:50}") int defaultLimit) {
+        // A bucket idle for longer than its refill time is full again, so dropping it changes nothing for the client
+        this.buckets = new BoundedExpiringCache<>(maxClients, Duration.ofSeconds(idleExpirySeconds),
+                BoundedExpiringCache.Expiry.AFTER_ACCESS, SEGMENTS);
+        limits.put(RouteGroup.AUTH, authLimit);
+        limits.put(RouteGroup.ORDERING, orderingLimit);
+        limits.put(RouteGroup.PUBLIC_MENU, publicMenuLimit);
+        limits.put(RouteGroup.DEFAULT, defaultLimit);
+    }
+
+    public boolean tryConsume(RouteGroup group, String client) {
+        Bucket bucket = buckets.computeIfAbsent(new Key(group, client), key -> createBucket(group));
+        // Buckets are thread safe, consuming does not need the cache lock
+        return bucket.tryConsume(1);
+    }
+
+    public int getLimit(RouteGroup group) {
+        return limits.get(group);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private Bucket createBucket(RouteGroup group) {
+        return Bucket.builder()
+                .addLimit(Bandwidth.simple(limits.get(group), Duration.ofSeconds(1)))
+                .build();
+    }
+}
@@ -11,8 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -29,6 +27,7 @@ public class SecurityConfig {
 
     private final UserDetailsService customerUserDetailsService;
     private final JwtAuthFilter authFilter;
+    private final BoundedPasswordEncoder passwordEncoder;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
@@ -55,13 +54,18 @@ public class SecurityConfig {
                                 "api/meals/get-meals/**",
                                 "api/meals/search",
                                 "api/opinions/average-rating/**",
+                                "api/opinions/average-ratings",
                                 "api/opinions/meal/**",
                                 "api/orders/add",
+                                "api/orders/idempotency-key",
                                 "api/orders/get/**",
                                 "api/photos/download",
                                 "error")
                         .permitAll()
 
+                        .requestMatchers("api/reservations/page") // lists reservations of every customer
+                        .hasAuthority(PrivilegeName.ADMIN_PRIVILEGE.name())
+
                         .requestMatchers( // endpoints available only for authenticated users
                                 "api/customer/get/**",
                                 "api/customer/delete/**",
@@ -103,15 +107,10 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager() {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService(customerUserDetailsService);
-        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         return daoAuthenticationProvider::authenticate;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,96 @@
+package com.example.restaurant_management_backend.controllers;
+
+import com.example.restaurant_management_backend.services.CatalogVersionService;
+import com.example.restaurant_management_backend.services.MenuPublicationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+// Conditional GET for data tagged by CatalogVersionService and responses with pre-rendered JSON
+final class CatalogResponses {
+
+    private CatalogResponses() {
+    }
+
+    /**
+     * Answers 304 when If-None-Match of the request matches the remembered ETag, without calling the loader. Otherwise
+     * the body is loaded and tagged, and returned with its ETag and Cache-Control unless the new tag matches.
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, CatalogVersionService catalogVersionService,
+                                             CatalogVersionService.Resource resource, Supplier<T> loader) {
+        String eTag = catalogVersionService.rememberedETag(resource);
+        CatalogVersionService.Tagged<T> loaded = null;
+        if (eTag == null) {
+            loaded = catalogVersionService.load(resource, loader);
+            eTag = loaded.eTag();
+        }
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(catalogVersionService.getCacheControl())
+                    .build();
+        }
+        if (loaded == null) {
+            loaded = catalogVersionService.load(resource, loader);
+        }
+        return ResponseEntity.ok()
+                .eTag(loaded.eTag())
+                .cacheControl(catalogVersionService.getCacheControl())
+                .body(loaded.body());
+    }
+
+    /**
+     * Same as conditional for pre-rendered JSON, tagged with the digest rendered along with it. The gzip copy is sent
+     * to clients accepting it, when there is one, under its own ETag, since both representations must not share a strong validator.
+     */
+    static ResponseEntity<byte[]> conditionalJson(WebRequest request, CatalogVersionService catalogVersionService,
+                                                  String name, Supplier<MenuPublicationService.Payload> loader) {
+        MenuPublicationService.Payload payload = loader.get();
+        // the identity bytes go out when gzip did not shrink the payload, so they keep the identity tag
+        boolean gzip = acceptsGzip(request) && payload.gzip() != null;
+        String eTag = "\"" + name + "-" + payload.digest() + (gzip ? "-gzip\"" : "\"");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(catalogVersionService.getCacheControl())
+                    .build();
+        }
+        return json(payload, gzip, ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(catalogVersionService.getCacheControl()));
+    }
+
+    static ResponseEntity<byte[]> json(WebRequest request, MenuPublicationService.Payload payload) {
+        return json(payload, acceptsGzip(request), ResponseEntity.ok());
+    }
+
+    private static ResponseEntity<byte[]> json(MenuPublicationService.Payload payload, boolean gzip,
+                                               ResponseEntity.BodyBuilder response) {
+        response.contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip && payload.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
+
+    // "gzip" or "*" in Accept-Encoding, unless given with q=0
+    static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.restaurant_management_backend.controllers;
 
 import com.example.restaurant_management_backend.jpa.model.Category;
 import com.example.restaurant_management_backend.jpa.model.command.CategoryAddCommand;
+import com.example.restaurant_management_backend.services.CatalogVersionService;
 import com.example.restaurant_management_backend.services.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -11,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,13 +23,15 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
     private static final Logger logger = LoggerFactory.getLogger(CategoryController.class);
 
     @Operation(summary = "Get all categories")
     @GetMapping("/all")
-    public ResponseEntity<List<Category>> getAllCategories() {
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
         logger.info("Getting all categories");
-        return ResponseEntity.ok(categoryService.getAllCategories());
+        return CatalogResponses.conditional(request, catalogVersionService, CatalogVersionService.Resource.CATEGORIES,
+                categoryService::getAllCategories);
     }
 
     @Operation(summary = "Get category by id")
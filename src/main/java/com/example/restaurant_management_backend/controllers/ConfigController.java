@@ -4,6 +4,7 @@ import com.example.restaurant_management_backend.jpa.model.Config;
 import com.example.restaurant_management_backend.jpa.model.DeliveryPricing;
 import com.example.restaurant_management_backend.jpa.model.OpeningHour;
 import com.example.restaurant_management_backend.jpa.model.command.ConfigAddCommand;
+import com.example.restaurant_management_backend.services.CatalogVersionService;
 import com.example.restaurant_management_backend.services.ConfigService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -28,6 +30,7 @@ import java.util.List;
 public class ConfigController {
 
     private final ConfigService configService;
+    private final CatalogVersionService catalogVersionService;
     private static final Logger logger = LoggerFactory.getLogger(ConfigController.class);
 
     @Operation(summary = "Initialize the system with configuration")
@@ -46,13 +49,14 @@ public class ConfigController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returns the system configuration", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Config.class))}),
+            @ApiResponse(responseCode = "304", description = "Configuration unchanged since the given ETag", content = @Content),
             @ApiResponse(responseCode = "404", description = "System not initialized", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<Config> getConfig() {
-        Config config = configService.getConfig();
+    public ResponseEntity<Config> getConfig(WebRequest request) {
         logger.info("Getting system configuration");
-        return ResponseEntity.ok(config);
+        return CatalogResponses.conditional(request, catalogVersionService, CatalogVersionService.Resource.CONFIG,
+                configService::getConfig);
     }
 
     @Operation(summary = "Remove all configurations including delivery prices and opening hours (testing purposes only)")
@@ -71,25 +75,27 @@ public class ConfigController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returns the delivery pricing configuration", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = DeliveryPricing.class))}),
+            @ApiResponse(responseCode = "304", description = "Delivery prices unchanged since the given ETag", content = @Content),
             @ApiResponse(responseCode = "404", description = "System not initialized", content = @Content)
     })
     @GetMapping("/delivery-prices")
-    public ResponseEntity<List<DeliveryPricing>> getDeliveryPrices() {
-        List<DeliveryPricing> deliveryPrices = configService.getDeliveryPrices();
+    public ResponseEntity<List<DeliveryPricing>> getDeliveryPrices(WebRequest request) {
         logger.info("Getting delivery prices configuration");
-        return ResponseEntity.ok(deliveryPrices);
+        return CatalogResponses.conditional(request, catalogVersionService,
+                CatalogVersionService.Resource.DELIVERY_PRICES, configService::getDeliveryPrices);
     }
 
     @Operation(summary = "Get opening hours configuration")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returns the opening hours configuration", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = OpeningHour.class))}),
+            @ApiResponse(responseCode = "304", description = "Opening hours unchanged since the given ETag", content = @Content),
             @ApiResponse(responseCode = "404", description = "System not initialized", content = @Content)
     })
     @GetMapping("/opening-hours")
-    public ResponseEntity<List<OpeningHour>> getOpeningHours() {
-        List<OpeningHour> openingHours = configService.getOpeningHours();
+    public ResponseEntity<List<OpeningHour>> getOpeningHours(WebRequest request) {
         logger.info("Getting opening hours configuration");
-        return ResponseEntity.ok(openingHours);
+        return CatalogResponses.conditional(request, catalogVersionService,
+                CatalogVersionService.Resource.OPENING_HOURS, configService::getOpeningHours);
     }
 }
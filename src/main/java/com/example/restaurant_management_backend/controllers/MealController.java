@@ -2,13 +2,19 @@ package com.example.restaurant_management_backend.controllers;
 
 import com.example.restaurant_management_backend.jpa.model.Meal;
 import com.example.restaurant_management_backend.jpa.model.command.MealAddCommand;
+import com.example.restaurant_management_backend.services.CatalogVersionService;
 import com.example.restaurant_management_backend.services.MealService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,12 +23,18 @@ import java.util.List;
 @RequiredArgsConstructor
 @Validated
 public class MealController {
+    public static final String NO_MEAL_NAMED = "Nie znaleziono dania o nazwie: ";
+    public static final String NO_MEALS_MATCHING_FILTERS = "Nie znaleziono dań spełniających kryteria wyszukiwania";
     private final MealService mealService;
+    private final CatalogVersionService catalogVersionService;
 
     @Operation(summary = "Get all meals")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Meal.class))))
     @GetMapping("/all")
-    public ResponseEntity<List<Meal>> getAllMeals() {
-        return ResponseEntity.ok(mealService.getAllMeals());
+    public ResponseEntity<byte[]> getAllMeals(WebRequest request) {
+        return CatalogResponses.conditionalJson(request, catalogVersionService, "menu",
+                mealService::getAllMealsPayload);
     }
 
     @Operation(summary = "Get meal by id")
@@ -38,6 +50,12 @@ public class MealController {
         return ResponseEntity.ok(mealService.addMeal(mealAddCommand));
     }
 
+    @Operation(summary = "Add many meals at once")
+    @PostMapping("/add-all")
+    public ResponseEntity<List<Meal>> addMeals(@RequestBody List<MealAddCommand> mealAddCommands) {
+        return ResponseEntity.ok(mealService.addMeals(mealAddCommands));
+    }
+
     @Operation(summary = "Delete a meal by id")
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<String> deleteMealById(@PathVariable Long id) {
@@ -59,17 +77,24 @@ public class MealController {
     }
 
     @Operation(summary = "Get all meals with a given category id")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Meal.class))))
     @GetMapping("/get-meals/{categoryId}")
-    public ResponseEntity<List<Meal>> getMealsByCategory(@PathVariable Long categoryId) {
-        return ResponseEntity.ok(mealService.getMealsByCategoryId(categoryId));
+    public ResponseEntity<byte[]> getMealsByCategory(@PathVariable Long categoryId, WebRequest request) {
+        return CatalogResponses.json(request, mealService.getMealsByCategoryIdPayload(categoryId));
     }
 
-    @Operation(summary = "Search meals by name")
+    @Operation(summary = "Search meals by name and ingredients, best matches first",
+            description = "Tolerates missing Polish diacritics, unfinished words and small typos. "
+                    + "Results can be limited to a category and stripped of meals containing given allergens.")
     @GetMapping("/search")
-    public ResponseEntity<?> searchMealsByName(@RequestParam("name") String name) {
-        var meals = mealService.searchMealsByName(name);
+    public ResponseEntity<?> searchMeals(@RequestParam(value = "name", required = false) String name,
+                                         @RequestParam(value = "withoutAllergen", required = false) List<String> withoutAllergens,
+                                         @RequestParam(value = "categoryId", required = false) Long categoryId) {
+        var meals = mealService.searchMeals(name, withoutAllergens, categoryId);
         if (meals.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Nie znaleziono dania o nazwie: " + name);
+            String message = name == null || name.isBlank() ? NO_MEALS_MATCHING_FILTERS : NO_MEAL_NAMED + name;
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
         }
         return ResponseEntity.ok(meals);
     }
@@ -1,6 +1,7 @@
 package com.example.restaurant_management_backend.controllers;
 
 import com.example.restaurant_management_backend.dto.AverageRatingResponseDTO;
+import com.example.restaurant_management_backend.dto.MealRatingResponseDTO;
 import com.example.restaurant_management_backend.dto.OpinionResponseDTO;
 import com.example.restaurant_management_backend.jpa.model.command.OpinionAddCommand;
 import com.example.restaurant_management_backend.services.OpinionService;
@@ -39,6 +40,13 @@ public class OpinionController {
         return ResponseEntity.ok(opinionService.getAverageRating(mealId));
     }
 
+    @Operation(summary = "Get ratings for many meals at once")
+    @GetMapping("/average-ratings")
+    public ResponseEntity<List<MealRatingResponseDTO>> getRatings(@RequestParam List<Long> mealIds) {
+        logger.info("Getting ratings for meals with ids: {}", mealIds);
+        return ResponseEntity.ok(opinionService.getRatings(mealIds));
+    }
+
     @Operation(summary = "Get opinions for customer")
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<List<OpinionResponseDTO>> getOpinionsForCustomer(@PathVariable Long customerId) {
@@ -1,7 +1,14 @@
 package com.example.restaurant_management_backend.controllers;
 
+import com.example.restaurant_management_backend.configuration.security.AuthenticatedCustomer;
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
+import com.example.restaurant_management_backend.dto.OrderPaymentResponseDTO;
 import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.OrderStatus;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.model.PaymentStatus;
 import com.example.restaurant_management_backend.jpa.model.command.OrderAddCommand;
+import com.example.restaurant_management_backend.services.IdempotencyService;
 import com.example.restaurant_management_backend.services.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +19,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 
 @RestController
 @RequestMapping("/api/orders")
@@ -24,6 +34,7 @@ public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "Get all orders")
     @GetMapping("/all")
@@ -33,6 +44,23 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @Operation(summary = "Get a page of orders",
+            description = "Newest first by order time. Pass nextCursor of the previous page as cursor to get the next one, "
+                    + "all filters are optional")
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Order>> getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) OrderType type,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to) {
+        final var page = orderService.getOrdersPage(cursor, limit, status, type, customerId, from, to);
+        logger.info("Getting page of {} orders after cursor {}", page.items().size(), cursor);
+        return ResponseEntity.ok(page);
+    }
+
     @Operation(summary = "Get order by id")
     @ApiResponse(description = "Returns an order with a given id", content = {
             @Content(mediaType = "application/json", schema = @Schema(implementation = Order.class)) })
@@ -43,6 +71,15 @@ public class OrderController {
         return ResponseEntity.ok(order.get());
     }
 
+    @Operation(summary = "Get payment state of an order",
+            description = "Poll this endpoint after placing an order until paymentStatus is CREATED or FAILED")
+    @GetMapping("/get/{id}/payment")
+    public ResponseEntity<OrderPaymentResponseDTO> getOrderPayment(@PathVariable Long id) {
+        final var payment = orderService.getOrderPayment(id);
+        logger.info("Getting payment of order with id: {}", id);
+        return ResponseEntity.ok(payment);
+    }
+
     @Operation(summary = "Get all orders of a customer")
     @GetMapping("/get/customer/{customerId}")
     public ResponseEntity<?> getAllOrdersOfCustomer(@PathVariable Long customerId) {
@@ -51,12 +88,40 @@ public class OrderController {
         return ResponseEntity.ok(ordersList);
     }
 
-    @Operation(summary = "Add new order")
+    @Operation(summary = "Get an idempotency key for a guest order",
+            description = "Guests send this key as the Idempotency-Key header, logged in customers may choose their own")
+    @PostMapping("/idempotency-key")
+    public ResponseEntity<String> issueIdempotencyKey() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotencyService.issueGuestKey());
+    }
+
+    @Operation(summary = "Add new order",
+            description = "Requests repeated with the same Idempotency-Key header and body return the order created by the first one. "
+                    + "Answers 502 with the saved order when its payment could not be created")
     @PostMapping("/add")
-    public ResponseEntity<?> addOrder(@RequestBody OrderAddCommand orderAddCommand) {
-        Order createdOrder = orderService.addOrder(orderAddCommand);
-        logger.info("Added new order: {}", createdOrder);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+    public ResponseEntity<?> addOrder(@RequestBody OrderAddCommand orderAddCommand,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      @AuthenticationPrincipal AuthenticatedCustomer customer) {
+        if (idempotencyKey == null) {
+            Order createdOrder = orderService.addOrder(orderAddCommand);
+            logger.info("Added new order: {}", createdOrder);
+            return created(createdOrder);
+        }
+        // Checked here as well, a replayed order is returned without calling addOrder
+        orderService.checkCustomerOfNewOrder(orderAddCommand.getCustomerId());
+        Long keyOwnerId = customer == null ? null : customer.getId();
+        Order createdOrder = idempotencyService.execute(keyOwnerId, idempotencyKey, orderAddCommand, () -> {
+            Order order = orderService.addOrder(orderAddCommand);
+            logger.info("Added new order: {}", order);
+            return order;
+        });
+        return created(createdOrder);
+    }
+
+    // The order is saved either way, 502 tells the client that only its payment could not be created
+    private static ResponseEntity<Order> created(Order order) {
+        return ResponseEntity.status(order.getPaymentStatus() == PaymentStatus.FAILED
+                ? HttpStatus.BAD_GATEWAY : HttpStatus.CREATED).body(order);
     }
 
     @Operation(summary = "Update order")
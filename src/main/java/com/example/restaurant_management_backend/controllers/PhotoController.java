@@ -10,7 +10,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -38,11 +37,16 @@ public class PhotoController {
     }
 
     @GetMapping("/download")
-    @Operation(summary = "Download a photo", description = "Download a photo from the server")
-    public ResponseEntity<Resource> downloadPhoto(@RequestParam String filename) throws IOException {
-        Resource resource = photoService.downloadPhoto(filename);
+    @Operation(summary = "Download a photo", description = "Download a photo from the server. size=thumb (160 px), "
+            + "card (480 px) or full (1600 px) selects a resized copy, the original is sent while the copy is not "
+            + "ready yet or when the original is smaller")
+    public ResponseEntity<Resource> downloadPhoto(@RequestParam String filename,
+                                                  @RequestParam(required = false) String size) {
+        PhotoService.StoredPhoto photo = photoService.downloadPhoto(filename, PhotoService.PhotoSize.of(size));
+        // Files that are not images are sent as octet-stream, browsers must not guess a type that renders
         return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(resource);
+                .contentType(photo.mediaType())
+                .header("X-Content-Type-Options", "nosniff")
+                .body(photo.resource());
     }
 }
@@ -8,13 +8,17 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.restaurant_management_backend.jpa.model.OrderType;
 import com.example.restaurant_management_backend.services.StatsService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/stats")
 @Validated
@@ -24,26 +28,33 @@ public class StatsController {
     private static final Logger logger = LoggerFactory.getLogger(StatsController.class);
     private final StatsService statsService;
 
-    @Operation(summary = "Get n most or least popular meals")
+    @Operation(summary = "Get n most or least popular meals, optionally within a date range and for an order type")
     @GetMapping("/popular/{mostLeast}/{n}")
-    public ResponseEntity<?> getMostPopularMeals(@PathVariable String mostLeast, @PathVariable int n) {
-        final var popularMeals = statsService.getNMostPopularMeals(mostLeast, n);
+    public ResponseEntity<?> getMostPopularMeals(@PathVariable String mostLeast, @PathVariable int n,
+                                                 @RequestParam(required = false) LocalDate from,
+                                                 @RequestParam(required = false) LocalDate to,
+                                                 @RequestParam(required = false) OrderType type) {
+        final var popularMeals = statsService.getNMostPopularMeals(mostLeast, n, from, to, type);
         logger.info("Getting {} most popular meals", n);
         return ResponseEntity.ok(popularMeals);
     }
 
-    @Operation(summary = "Get amout of orders by day and hour")
+    @Operation(summary = "Get amout of orders by day and hour, optionally within a date range and for an order type")
     @GetMapping("/orders-by-day-hour")
-    public ResponseEntity<?> getOrdersByDayAndHour() {
-        final var ordersByDayAndHour = statsService.getAmountOfOrdersByDayAndHour();
+    public ResponseEntity<?> getOrdersByDayAndHour(@RequestParam(required = false) LocalDate from,
+                                                   @RequestParam(required = false) LocalDate to,
+                                                   @RequestParam(required = false) OrderType type) {
+        final var ordersByDayAndHour = statsService.getAmountOfOrdersByDayAndHour(from, to, type);
         logger.info("Getting amount of orders by day and hour");
         return ResponseEntity.ok(ordersByDayAndHour);
     }
 
-    @Operation(summary = "Get earnings by year-month")
+    @Operation(summary = "Get earnings by year-month, optionally within a date range and for an order type")
     @GetMapping("/earnings-by-year-month")
-    public ResponseEntity<?> getEarningsByYearMonth() {
-        final var earningsByYearMonth = statsService.getEarningsByYearMonth();
+    public ResponseEntity<?> getEarningsByYearMonth(@RequestParam(required = false) LocalDate from,
+                                                    @RequestParam(required = false) LocalDate to,
+                                                    @RequestParam(required = false) OrderType type) {
+        final var earningsByYearMonth = statsService.getEarningsByYearMonth(from, to, type);
         logger.info("Getting earnings by year-month");
         return ResponseEntity.ok(earningsByYearMonth);
     }
@@ -1,5 +1,6 @@
 package com.example.restaurant_management_backend.controllers;
 
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
 import com.example.restaurant_management_backend.dto.PossibleReservationHoursForDayDTO;
 import com.example.restaurant_management_backend.jpa.model.TableReservation;
 import com.example.restaurant_management_backend.jpa.model.command.MakeReservationCommand;
@@ -32,6 +33,24 @@ public class TableReservationController {
         return ResponseEntity.ok(reservations);
     }
 
+    @Operation(summary = "Get a page of reservations",
+            description = "Admins only. Newest first by day and start time. Pass nextCursor of the previous page as "
+                    + "cursor to get the next one, all filters are optional")
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<TableReservation>> getReservationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String tableId,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to) {
+        logger.info("Fetching page of reservations after cursor {}", cursor);
+        CursorPageDTO<TableReservation> page =
+                tableReservationService.getTableReservationsPage(cursor, limit, customerId, tableId, from, to);
+        logger.info("Fetched {} reservations", page.items().size());
+        return ResponseEntity.ok(page);
+    }
+
     @Operation(summary = "Get reservations for a specific day")
     @GetMapping("/day/{day}")
     public ResponseEntity<List<TableReservation>> getReservationsForDay(@PathVariable LocalDate day) {
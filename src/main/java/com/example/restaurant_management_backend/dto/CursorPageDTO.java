@@ -0,0 +1,54 @@
+package com.example.restaurant_management_backend.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+
+// nextCursor is passed as cursor to get the following page, null on the last page
+public record CursorPageDTO<T>(List<T> items, String nextCursor) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final String INVALID_CURSOR = "Nieprawidłowy kursor strony";
+
+    /**
+     * Position of the last item of a page in a newest first listing: its time, with the id breaking ties between items
+     * of the same time. Sent to clients as "time_id", for example "2024-11-01T12:30_42".
+     */
+    public record Cursor(LocalDateTime at, long id) {
+
+        @Override
+        public String toString() {
+            return at + "_" + id;
+        }
+
+        // Null for a missing cursor, the first page
+        public static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            int separator = cursor.lastIndexOf('_');
+            try {
+                return new Cursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+        }
+    }
+
+    // fetched holds up to limit + 1 rows, the extra row only tells that another page exists
+    public static <T> CursorPageDTO<T> of(List<T> fetched, int limit, Function<T, Cursor> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPageDTO<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPageDTO<>(items, cursorOf.apply(items.get(limit - 1)).toString());
+    }
+
+    public static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Rozmiar strony musi być liczbą od 1 do " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.restaurant_management_backend.dto;
+
+import java.util.List;
+
+// ratingHistogram holds the number of opinions with 1 to 5 stars
+public record MealRatingResponseDTO(Long mealId, Double averageRating, long numberOfOpinions, List<Long> ratingHistogram) {
+}
@@ -0,0 +1,7 @@
+package com.example.restaurant_management_backend.dto;
+
+import com.example.restaurant_management_backend.jpa.model.PaymentStatus;
+
+// clientSecret is null until the payment is CREATED
+public record OrderPaymentResponseDTO(Long orderId, PaymentStatus paymentStatus, String clientSecret) {
+}
@@ -0,0 +1,15 @@
+package com.example.restaurant_management_backend.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class PaymentGatewayException extends RuntimeException {
+
+    // Whether repeating the same call may succeed, e.g. after a timeout or a rate limit
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -12,7 +13,8 @@ import lombok.Data;
 @Entity
 public class DeliveryPricing {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_pricing_seq")
+    @SequenceGenerator(name = "delivery_pricing_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Maksymalny zasięg dostawy nie może być pusty (km)")
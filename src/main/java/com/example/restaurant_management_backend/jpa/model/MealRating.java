@@ -0,0 +1,33 @@
+package com.example.restaurant_management_backend.jpa.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Rating aggregate of a meal with a histogram of given stars, kept up to date by OpinionService
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRating {
+    @Id
+    private Long mealId;
+
+    private long ratingSum;
+
+    private long ratingCount;
+
+    private long oneStarCount;
+
+    private long twoStarCount;
+
+    private long threeStarCount;
+
+    private long fourStarCount;
+
+    private long fiveStarCount;
+}
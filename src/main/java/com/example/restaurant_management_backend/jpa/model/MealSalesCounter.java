@@ -0,0 +1,21 @@
+package com.example.restaurant_management_backend.jpa.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Running total of sold portions per meal, kept up to date by OrderService
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealSalesCounter {
+    @Id
+    private Long mealId;
+
+    private long quantitySold;
+}
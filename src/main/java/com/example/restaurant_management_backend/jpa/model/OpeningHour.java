@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -14,7 +15,8 @@ import java.time.LocalTime;
 @Entity
 public class OpeningHour {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "opening_hour_seq")
+    @SequenceGenerator(name = "opening_hour_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Dzień tygodnia nie może być pusty")
@@ -14,11 +14,19 @@ import java.util.List;
 
 
 @Entity(name = "orders")
+// Lists load meal quantities and the reservation in the same query; unwanted ingredients, the second bag, are batch fetched
+@NamedEntityGraph(name = Order.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("mealIds"),
+        @NamedAttributeNode("tableReservation")})
+// Statistics filter orders by time window, pages are sorted by (date_time, id)
+@jakarta.persistence.Table(indexes = @Index(name = "idx_orders_date_time_id", columnList = "date_time, id"))
 @Getter(AccessLevel.PUBLIC)
 @Setter(AccessLevel.PUBLIC)
 @NoArgsConstructor
 public class Order {
 
+    public static final String WITH_DETAILS = "Order.withDetails";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -49,6 +57,8 @@ public class Order {
 
     private String paymentIntentClientSecret;
 
+    private PaymentStatus paymentStatus;
+
     @Size(max = 150, message = "Adres dostawy nie może być dłuższy niż 150 znaków")
     private String deliveryAddress;
 
@@ -0,0 +1,31 @@
+package com.example.restaurant_management_backend.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// Orders aggregated per hour and order type, kept up to date by OrderService
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHourlyRollup {
+    @EmbeddedId
+    private OrderHourlyRollupId id;
+
+    private long orderCount;
+
+    // Exact to the grosz, so adding and subtracting orders does not drift from the sum of their prices
+    @Column(precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(precision = 14, scale = 2)
+    private BigDecimal deliveryRevenue;
+}
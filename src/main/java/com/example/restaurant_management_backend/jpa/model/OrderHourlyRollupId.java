@@ -0,0 +1,25 @@
+package com.example.restaurant_management_backend.jpa.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class OrderHourlyRollupId implements Serializable {
+
+    // Start of the hour the orders were placed in
+    private LocalDateTime bucketStart;
+
+    private OrderType type;
+}
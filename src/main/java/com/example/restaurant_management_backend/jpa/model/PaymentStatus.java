@@ -0,0 +1,7 @@
+package com.example.restaurant_management_backend.jpa.model;
+
+public enum PaymentStatus {
+    PENDING_PAYMENT,
+    CREATED,
+    FAILED
+}
@@ -12,6 +12,9 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
+// Reservation pages are sorted by (day, start_time, id)
+@jakarta.persistence.Table(indexes = @Index(name = "idx_table_reservation_day_start_time_id",
+        columnList = "day, start_time, id"))
 @Getter
 @Setter
 @NoArgsConstructor
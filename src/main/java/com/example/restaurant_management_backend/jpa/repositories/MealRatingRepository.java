@@ -0,0 +1,70 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import com.example.restaurant_management_backend.jpa.model.MealRating;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MealRatingRepository extends JpaRepository<MealRating, Long> {
+
+    // Atomic upsert, so concurrent opinions for the same meal do not lose updates
+    @Modifying
+    @Query(value = """
+            INSERT INTO meal_rating (meal_id, rating_sum, rating_count, one_star_count, two_star_count,
+                                     three_star_count, four_star_count, five_star_count)
+            VALUES (:mealId, :sumDelta, :countDelta, :oneStarDelta, :twoStarDelta, :threeStarDelta,
+                    :fourStarDelta, :fiveStarDelta)
+            ON CONFLICT (meal_id) DO UPDATE SET
+                rating_sum = meal_rating.rating_sum + EXCLUDED.rating_sum,
+                rating_count = meal_rating.rating_count + EXCLUDED.rating_count,
+                one_star_count = meal_rating.one_star_count + EXCLUDED.one_star_count,
+                two_star_count = meal_rating.two_star_count + EXCLUDED.two_star_count,
+                three_star_count = meal_rating.three_star_count + EXCLUDED.three_star_count,
+                four_star_count = meal_rating.four_star_count + EXCLUDED.four_star_count,
+                five_star_count = meal_rating.five_star_count + EXCLUDED.five_star_count
+            """, nativeQuery = true)
+    void addToRating(@Param("mealId") Long mealId, @Param("sumDelta") long sumDelta,
+                     @Param("countDelta") long countDelta, @Param("oneStarDelta") long oneStarDelta,
+                     @Param("twoStarDelta") long twoStarDelta, @Param("threeStarDelta") long threeStarDelta,
+                     @Param("fourStarDelta") long fourStarDelta, @Param("fiveStarDelta") long fiveStarDelta);
+
+    // Taken shared by every aggregate update and exclusively by the rebuild, released on commit or rollback
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('meal_rating'))", nativeQuery = true)
+    Integer lockForUpdate();
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('meal_rating'))", nativeQuery = true)
+    Integer lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM meal_rating", nativeQuery = true)
+    void deleteAllRatings();
+
+    // Rebuild aggregates from all opinions in a single statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO meal_rating (meal_id, rating_sum, rating_count, one_star_count, two_star_count,
+                                     three_star_count, four_star_count, five_star_count)
+            SELECT meal_id, SUM(rating), COUNT(*),
+                   COUNT(*) FILTER (WHERE rating = 1), COUNT(*) FILTER (WHERE rating = 2),
+                   COUNT(*) FILTER (WHERE rating = 3), COUNT(*) FILTER (WHERE rating = 4),
+                   COUNT(*) FILTER (WHERE rating = 5)
+            FROM opinion WHERE meal_id IS NOT NULL AND rating IS NOT NULL GROUP BY meal_id
+            ON CONFLICT (meal_id) DO NOTHING
+            """, nativeQuery = true)
+    void backfillFromOpinions();
+
+    // Average rating of every rated meal, read from the aggregates in a single query
+    @Query("""
+            SELECT r.mealId AS mealId, m.name AS mealName,
+                   CAST(r.ratingSum AS Double) / r.ratingCount AS averageRating, r.ratingCount AS numberOfOpinions
+            FROM MealRating r JOIN Meal m ON m.id = r.mealId
+            WHERE r.ratingCount > 0
+            """)
+    List<MealRatingSummary> summarizeRatings();
+}
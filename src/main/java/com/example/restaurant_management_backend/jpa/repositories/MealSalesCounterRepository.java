@@ -0,0 +1,40 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import com.example.restaurant_management_backend.jpa.model.MealSalesCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MealSalesCounterRepository extends JpaRepository<MealSalesCounter, Long> {
+
+    // Atomic upsert, so concurrent orders of the same meal do not lose updates
+    @Modifying
+    @Query(value = """
+            INSERT INTO meal_sales_counter (meal_id, quantity_sold) VALUES (:mealId, :delta)
+            ON CONFLICT (meal_id) DO UPDATE SET quantity_sold = meal_sales_counter.quantity_sold + :delta
+            """, nativeQuery = true)
+    void addToQuantitySold(@Param("mealId") Long mealId, @Param("delta") long delta);
+
+    // Taken shared by every counter update and exclusively by the rebuild, released on commit or rollback
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('meal_sales_counter'))", nativeQuery = true)
+    Integer lockForUpdate();
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('meal_sales_counter'))", nativeQuery = true)
+    Integer lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM meal_sales_counter", nativeQuery = true)
+    void deleteAllCounters();
+
+    // Rebuild counters from the whole order history in a single statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO meal_sales_counter (meal_id, quantity_sold)
+            SELECT meal_id, SUM(quantity) FROM order_meal_quantities GROUP BY meal_id
+            ON CONFLICT (meal_id) DO NOTHING
+            """, nativeQuery = true)
+    void backfillFromOrders();
+}
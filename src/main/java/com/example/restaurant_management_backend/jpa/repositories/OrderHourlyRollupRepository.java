@@ -0,0 +1,75 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import com.example.restaurant_management_backend.jpa.model.OrderHourlyRollup;
+import com.example.restaurant_management_backend.jpa.model.OrderHourlyRollupId;
+import com.example.restaurant_management_backend.jpa.repositories.projections.EarningsByYearMonth;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderHourlyRollupRepository extends JpaRepository<OrderHourlyRollup, OrderHourlyRollupId> {
+
+    // Atomic upsert, type is stored as ordinal like in the orders table
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_hourly_rollup (bucket_start, type, order_count, revenue, delivery_revenue)
+            VALUES (:bucketStart, :type, :orderCount, :revenue, :deliveryRevenue)
+            ON CONFLICT (bucket_start, type) DO UPDATE SET
+                order_count = order_hourly_rollup.order_count + EXCLUDED.order_count,
+                revenue = order_hourly_rollup.revenue + EXCLUDED.revenue,
+                delivery_revenue = order_hourly_rollup.delivery_revenue + EXCLUDED.delivery_revenue
+            """, nativeQuery = true)
+    void addToBucket(@Param("bucketStart") LocalDateTime bucketStart, @Param("type") int type,
+                     @Param("orderCount") long orderCount, @Param("revenue") BigDecimal revenue,
+                     @Param("deliveryRevenue") BigDecimal deliveryRevenue);
+
+    // Taken shared by every bucket update and exclusively by the rebuild, released on commit or rollback
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('order_hourly_rollup'))", nativeQuery = true)
+    Integer lockForUpdate();
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('order_hourly_rollup'))", nativeQuery = true)
+    Integer lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM order_hourly_rollup", nativeQuery = true)
+    void deleteAllBuckets();
+
+    // Rebuild the rollup from the whole order history in a single statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_hourly_rollup (bucket_start, type, order_count, revenue, delivery_revenue)
+            SELECT date_trunc('hour', date_time), type, COUNT(*),
+                   SUM(ROUND(CAST(order_price AS NUMERIC), 2)), SUM(ROUND(CAST(delivery_price AS NUMERIC), 2))
+            FROM orders GROUP BY date_trunc('hour', date_time), type
+            ON CONFLICT (bucket_start, type) DO NOTHING
+            """, nativeQuery = true)
+    void backfillFromOrders();
+
+    @Query(value = """
+            SELECT CAST(EXTRACT(ISODOW FROM bucket_start) AS INTEGER) AS day,
+                   CAST(EXTRACT(HOUR FROM bucket_start) AS INTEGER) AS hour,
+                   CAST(SUM(order_count) AS BIGINT) AS orders
+            FROM order_hourly_rollup
+            GROUP BY 1, 2
+            HAVING SUM(order_count) > 0
+            """, nativeQuery = true)
+    List<OrdersByDayHour> sumOrdersByDayAndHour();
+
+    @Query(value = """
+            SELECT CAST(EXTRACT(YEAR FROM bucket_start) AS INTEGER) AS year,
+                   CAST(EXTRACT(MONTH FROM bucket_start) AS INTEGER) AS month,
+                   CAST(SUM(revenue) AS DOUBLE PRECISION) AS earnings
+            FROM order_hourly_rollup
+            GROUP BY 1, 2
+            HAVING SUM(order_count) > 0
+            """, nativeQuery = true)
+    List<EarningsByYearMonth> sumEarningsByYearMonth();
+}
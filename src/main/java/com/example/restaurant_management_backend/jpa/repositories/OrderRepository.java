@@ -1,15 +1,80 @@
 package com.example.restaurant_management_backend.jpa.repositories;
 
 import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.OrderStatus;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.repositories.projections.EarningsByYearMonth;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealQuantitySold;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    @Override
+    @EntityGraph(Order.WITH_DETAILS)
+    List<Order> findAll();
+
     // Find orders by customer id
+    @EntityGraph(Order.WITH_DETAILS)
     List<Order> findByCustomerId(Long customerId);
+
+    // Keyset page, newest first by (dateTime, id), continuing after the given position; null filters are ignored.
+    // No collection fetch join here, it would make Hibernate apply the limit in memory; collections are batch fetched
+    @Query("""
+            SELECT o FROM orders o
+            WHERE (:afterDateTime IS NULL OR (o.dateTime, o.id) < (:afterDateTime, :afterId))
+              AND (:status IS NULL OR o.status = :status)
+              AND (:type IS NULL OR o.type = :type)
+              AND (:customerId IS NULL OR o.customerId = :customerId)
+              AND (:from IS NULL OR o.dateTime >= :from)
+              AND (:to IS NULL OR o.dateTime < :to)
+            ORDER BY o.dateTime DESC, o.id DESC
+            """)
+    List<Order> findPage(@Param("afterDateTime") LocalDateTime afterDateTime, @Param("afterId") Long afterId,
+                         @Param("status") OrderStatus status,
+                         @Param("type") OrderType type, @Param("customerId") Long customerId,
+                         @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Statistics for a time window, [from, to), types are passed as ordinals like they are stored
+    @Query(value = """
+            SELECT CAST(EXTRACT(ISODOW FROM date_time) AS INTEGER) AS day,
+                   CAST(EXTRACT(HOUR FROM date_time) AS INTEGER) AS hour,
+                   COUNT(*) AS orders
+            FROM orders
+            WHERE date_time >= :from AND date_time < :to AND type IN (:types)
+            GROUP BY 1, 2
+            """, nativeQuery = true)
+    List<OrdersByDayHour> countOrdersByDayAndHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                  @Param("types") Collection<Integer> types);
+
+    @Query(value = """
+            SELECT CAST(EXTRACT(YEAR FROM date_time) AS INTEGER) AS year,
+                   CAST(EXTRACT(MONTH FROM date_time) AS INTEGER) AS month,
+                   SUM(order_price) AS earnings
+            FROM orders
+            WHERE date_time >= :from AND date_time < :to AND type IN (:types)
+            GROUP BY 1, 2
+            """, nativeQuery = true)
+    List<EarningsByYearMonth> sumEarningsByYearMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                     @Param("types") Collection<Integer> types);
+
+    @Query(value = """
+            SELECT q.meal_id AS "mealId", CAST(SUM(q.quantity) AS BIGINT) AS quantity
+            FROM orders o JOIN order_meal_quantities q ON q.order_id = o.id
+            WHERE o.date_time >= :from AND o.date_time < :to AND o.type IN (:types)
+            GROUP BY q.meal_id
+            """, nativeQuery = true)
+    List<MealQuantitySold> sumMealQuantities(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             @Param("types") Collection<Integer> types);
 }
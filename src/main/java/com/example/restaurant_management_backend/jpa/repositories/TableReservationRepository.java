@@ -1,10 +1,14 @@
 package com.example.restaurant_management_backend.jpa.repositories;
 
 import com.example.restaurant_management_backend.jpa.model.TableReservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @Repository
@@ -12,7 +16,29 @@ public interface TableReservationRepository extends JpaRepository<TableReservati
 
     List<TableReservation> findAllByDay(LocalDate day);
 
+    List<TableReservation> findAllByDayBetween(LocalDate firstDay, LocalDate lastDay);
+
     List<TableReservation> findAllByCustomerId(Long customerId);
 
     List<TableReservation> findAllByTableIdAndDay(String tableId, LocalDate day);
+
+    // Keyset page, newest first by (day, startTime, id), continuing after the given position; null filters are ignored
+    @Query("""
+            SELECT r FROM TableReservation r
+            WHERE (:afterDay IS NULL OR (r.day, r.startTime, r.id) < (:afterDay, :afterStartTime, :afterId))
+              AND (:customerId IS NULL OR r.customerId = :customerId)
+              AND (:tableId IS NULL OR r.tableId = :tableId)
+              AND (:from IS NULL OR r.day >= :from)
+              AND (:to IS NULL OR r.day <= :to)
+            ORDER BY r.day DESC, r.startTime DESC, r.id DESC
+            """)
+    List<TableReservation> findPage(@Param("afterDay") LocalDate afterDay,
+                                    @Param("afterStartTime") LocalTime afterStartTime, @Param("afterId") Long afterId,
+                                    @Param("customerId") Long customerId,
+                                    @Param("tableId") String tableId, @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to, Pageable pageable);
+
+    // False right away when another transaction holds the lock for this table and day, released on commit or rollback
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:tableKey, :dayKey)", nativeQuery = true)
+    boolean tryLockTableDay(@Param("tableKey") int tableKey, @Param("dayKey") int dayKey);
 }
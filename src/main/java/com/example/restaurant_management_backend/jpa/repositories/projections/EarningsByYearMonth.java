@@ -0,0 +1,10 @@
+package com.example.restaurant_management_backend.jpa.repositories.projections;
+
+public interface EarningsByYearMonth {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    Double getEarnings();
+}
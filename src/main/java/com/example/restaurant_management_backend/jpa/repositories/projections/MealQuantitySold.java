@@ -0,0 +1,8 @@
+package com.example.restaurant_management_backend.jpa.repositories.projections;
+
+public interface MealQuantitySold {
+
+    Long getMealId();
+
+    Long getQuantity();
+}
@@ -0,0 +1,12 @@
+package com.example.restaurant_management_backend.jpa.repositories.projections;
+
+public interface MealRatingSummary {
+
+    Long getMealId();
+
+    String getMealName();
+
+    Double getAverageRating();
+
+    Long getNumberOfOpinions();
+}
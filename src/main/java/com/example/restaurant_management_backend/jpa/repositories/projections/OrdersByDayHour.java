@@ -0,0 +1,11 @@
+package com.example.restaurant_management_backend.jpa.repositories.projections;
+
+public interface OrdersByDayHour {
+
+    // ISO day of week, 1 is Monday
+    Integer getDay();
+
+    Integer getHour();
+
+    Long getOrders();
+}
@@ -0,0 +1,168 @@
+package com.example.restaurant_management_backend.services;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory map with a size bound and a time to live, shared by the caches of this application. Entries live in a
+ * fixed number of segments, each a linked map with its own lock that keeps its oldest entry first, so expired entries
+ * are dropped from the head on every access of the segment and the head is evicted when the segment is full. Entries
+ * expire a fixed time after they were written, or after they were last read when created with
+ * {@link Expiry#AFTER_ACCESS}, which also makes eviction least recently used.
+ */
+public final class BoundedExpiringCache<K, V> {
+
+    public enum Expiry {
+        AFTER_WRITE, AFTER_ACCESS
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private long touchedAt;
+
+        private Entry(V value, long touchedAt) {
+            this.value = value;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> entries;
+
+        private Segment(boolean accessOrder) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, accessOrder);
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final int maxEntriesPerSegment;
+    private final long timeToLiveNanos;
+    private final boolean afterAccess;
+
+    // Use more than one segment only when the cache is hit by many threads at once
+    @SuppressWarnings("unchecked")
+    public BoundedExpiringCache(int maxEntries, Duration timeToLive, Expiry expiry, int segmentCount) {
+        this.afterAccess = expiry == Expiry.AFTER_ACCESS;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxEntriesPerSegment = Math.max(1, maxEntries / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(afterAccess);
+        }
+    }
+
+    public BoundedExpiringCache(int maxEntries, Duration timeToLive, Expiry expiry) {
+        this(maxEntries, timeToLive, expiry, 1);
+    }
+
+    // Null when missing or expired
+    public V get(K key) {
+        Segment<K, V> segment = segmentOf(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            evictExpired(segment, now);
+            Entry<V> entry = segment.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (afterAccess) {
+                entry.touchedAt = now;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentOf(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            evictExpired(segment, now);
+            // Removed first, so a rewritten entry moves to the end also in write order
+            segment.entries.remove(key);
+            insert(segment, key, new Entry<>(value, now));
+        }
+    }
+
+    /**
+     * Returns the live value or stores the one created by the function. The function runs under the segment lock and
+     * must be cheap.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Segment<K, V> segment = segmentOf(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            evictExpired(segment, now);
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null) {
+                if (afterAccess) {
+                    entry.touchedAt = now;
+                }
+                return entry.value;
+            }
+            V value = mappingFunction.apply(key);
+            insert(segment, key, new Entry<>(value, now));
+            return value;
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    // Removes the entry only while it still holds the given value
+    public void remove(K key, V value) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && entry.value == value) {
+                segment.entries.remove(key);
+            }
+        }
+    }
+
+    public void removeValuesIf(Predicate<? super V> predicate) {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.values().removeIf(entry -> predicate.test(entry.value));
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentOf(K key) {
+        return segments[Math.floorMod(key.hashCode(), segments.length)];
+    }
+
+    private void insert(Segment<K, V> segment, K key, Entry<V> entry) {
+        segment.entries.put(key, entry);
+        if (segment.entries.size() > maxEntriesPerSegment) {
+            Iterator<K> eldest = segment.entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    // The head is always the entry touched longest ago, so the scan stops at the first live one
+    private void evictExpired(Segment<K, V> segment, long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entries.entrySet().iterator();
+        while (iterator.hasNext() && now - iterator.next().getValue().touchedAt >= timeToLiveNanos) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.restaurant_management_backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * ETags of the rarely changing data every client fetches on page load: the categories and the restaurant
+ * configuration. A tag is a digest of the JSON the response carries, so every instance gives the same tag to the same
+ * content, also after a restart. The tag of the last loaded body is remembered, so a request with a matching
+ * If-None-Match is answered 304 without loading anything. Writes forget the remembered tag once committed, and a tag
+ * older than http-cache.etag-max-age-seconds is computed again, so changes made through another instance are picked
+ * up within that time. No modification time is stored, so responses carry no Last-Modified.
+ */
+@Service
+public class CatalogVersionService {
+
+    public enum Resource {
+        CATEGORIES, CONFIG, DELIVERY_PRICES, OPENING_HOURS
+    }
+
+    // eTag is quoted
+    public record Tagged<T>(T body, String eTag) {
+    }
+
+    // eTag is null until loaded and after a change, generation counts the changes
+    private record State(long generation, String eTag, long expiresAt) {
+    }
+
+    private static final int DIGEST_BYTES = 16;
+    private final ObjectMapper objectMapper;
+    private final Map<Resource, AtomicReference<State>> states = new EnumMap<>(Resource.class);
+    private final long eTagMaxAgeNanos;
+    private final CacheControl cacheControl;
+
+    public CatalogVersionService(ObjectMapper objectMapper,
+                                 @Value("${http-cache.etag-max-age-seconds:60}") long eTagMaxAgeSeconds,
+                                 @Value("${http-cache.max-age-seconds:60}") long maxAgeSeconds,
+                                 @Value("${http-cache.stale-while-revalidate-seconds:300}") long staleWhileRevalidateSeconds) {
+        this.objectMapper = objectMapper;
+        this.eTagMaxAgeNanos = Duration.ofSeconds(eTagMaxAgeSeconds).toNanos();
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+        for (Resource resource : Resource.values()) {
+            states.put(resource, new AtomicReference<>(new State(0, null, 0)));
+        }
+    }
+
+    // Null when the tag has to be computed by loading the body
+    public String rememberedETag(Resource resource) {
+        State state = states.get(resource).get();
+        if (state.eTag() == null || System.nanoTime() - state.expiresAt() >= 0) {
+            return null;
+        }
+        return state.eTag();
+    }
+
+    // Loads and tags the body, the tag is not remembered when the resource changed while loading
+    public <T> Tagged<T> load(Resource resource, Supplier<T> loader) {
+        AtomicReference<State> reference = states.get(resource);
+        long generation = reference.get().generation();
+        T body = loader.get();
+        String eTag = "\"" + resource.name().toLowerCase(Locale.ROOT) + "-" + digest(toJson(body)) + "\"";
+        State loaded = new State(generation, eTag, System.nanoTime() + eTagMaxAgeNanos);
+        State current = reference.get();
+        while (current.generation() == generation && !reference.compareAndSet(current, loaded)) {
+            current = reference.get();
+        }
+        return new Tagged<>(body, eTag);
+    }
+
+    // Shared by menu, categories and configuration, all of them are public and change rarely
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    // Forgets the tags once the surrounding transaction is committed, right away without one
+    public void changed(Resource... resources) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget(resources);
+                }
+            });
+        } else {
+            forget(resources);
+        }
+    }
+
+    private void forget(Resource[] resources) {
+        for (Resource resource : resources) {
+            states.get(resource).updateAndGet(state -> new State(state.generation() + 1, null, 0));
+        }
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render the response body", e);
+        }
+    }
+
+    // Hex of the leading bytes of the SHA-256 of the content, short enough for a header and unique enough for a tag
+    public static String digest(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, DIGEST_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class CategoryService {
     public static final String CANNOT_REMOVE_CATEGORY_MEALS_ARE_CONNECTED = "Nie można usunąć kategorii, ponieważ są z nią powiązane posiłki.";
     private final CategoryRepository categoryRepository;
     private final MealRepository mealRepository;
+    private final CatalogVersionService catalogVersionService;
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
@@ -34,7 +35,9 @@ public class CategoryService {
         if (categoryAddCommand.getPhotographUrl() != null) {
             category.setPhotographUrl(categoryAddCommand.getPhotographUrl());
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
+        return savedCategory;
     }
 
     public Category updateCategory(Long id, CategoryAddCommand categoryAddCommand) {
@@ -43,7 +46,9 @@ public class CategoryService {
         if (categoryAddCommand.getPhotographUrl() != null) {
             category.setPhotographUrl(categoryAddCommand.getPhotographUrl());
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
+        return savedCategory;
     }
 
     public void deleteCategoryById(Long id) {
@@ -51,5 +56,6 @@ public class CategoryService {
             throw new ResourceConflictException(CANNOT_REMOVE_CATEGORY_MEALS_ARE_CONNECTED);
         }
         categoryRepository.deleteById(id);
+        catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
     }
 }
@@ -13,7 +13,10 @@ import com.example.restaurant_management_backend.mappers.ConfigMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
 
 @Service
@@ -25,21 +28,95 @@ public class ConfigService {
     private final DeliveryPriceRepository deliveryPriceRepository;
     private final OpeningHourRepository openingHourRepository;
     private final ConfigMapper configMapper;
+    private final CatalogVersionService catalogVersionService;
+    // Null until first read and after initialize/removeAll commit; reloaded when older than SNAPSHOT_MAX_AGE, so
+    // changes made through another instance show up too
+    private volatile LoadedSnapshot loadedSnapshot;
+    // Bumped by every invalidation, so a load that raced with one is not kept
+    private long invalidations;
+
+    private static final long SNAPSHOT_MAX_AGE_NANOS = Duration.ofMinutes(1).toNanos();
+
+    // snapshot is null when the system is not initialized
+    private record LoadedSnapshot(ConfigSnapshot snapshot, long loadedAt) {
+    }
 
     public boolean isSystemInitialized() {
-        return configRepository.count() > 0;
+        return currentSnapshot() != null;
     }
 
+    // Writes check the database itself rather than the possibly stale snapshot
     private void ensureSystemNotInitialized() {
-        if (isSystemInitialized()) {
+        if (configRepository.count() > 0) {
             throw new SystemAlreadyInitializedException(SYSTEM_WAS_INITIALIZED);
         }
     }
 
-    private void ensureSystemInitialized() {
-        if (!isSystemInitialized()) {
+    private void ensureSystemInitializedInDatabase() {
+        if (configRepository.count() == 0) {
+            throw new SystemNotInitializedException(SYSTEM_NOT_INITIALIZED);
+        }
+    }
+
+    /**
+     * Delivery pricing and opening hours for lookups on hot paths.
+     *
+     * @throws SystemNotInitializedException when the system was not initialized yet
+     */
+    public ConfigSnapshot getSnapshot() {
+        ConfigSnapshot snapshot = currentSnapshot();
+        if (snapshot == null) {
             throw new SystemNotInitializedException(SYSTEM_NOT_INITIALIZED);
+        }
+        return snapshot;
+    }
+
+    private ConfigSnapshot currentSnapshot() {
+        LoadedSnapshot loaded = loadedSnapshot;
+        if (loaded == null || System.nanoTime() - loaded.loadedAt() > SNAPSHOT_MAX_AGE_NANOS) {
+            loaded = loadSnapshot();
+        }
+        return loaded.snapshot();
+    }
+
+    // Loads outside the lock, so concurrent misses may load twice; only a load no invalidation raced with is kept
+    private LoadedSnapshot loadSnapshot() {
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            LoadedSnapshot loaded = loadedSnapshot;
+            if (loaded != null && System.nanoTime() - loaded.loadedAt() <= SNAPSHOT_MAX_AGE_NANOS) {
+                return loaded;
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        ConfigSnapshot snapshot = configRepository.count() == 0 ? null
+                : new ConfigSnapshot(deliveryPriceRepository.findAll(), openingHourRepository.findAll());
+        LoadedSnapshot loaded = new LoadedSnapshot(snapshot, System.nanoTime());
+        synchronized (this) {
+            if (invalidations == invalidationsBeforeLoad) {
+                loadedSnapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void invalidateSnapshot() {
+        invalidations++;
+        loadedSnapshot = null;
+    }
 
+    // Drops the snapshot once the change is committed, the next read loads the new configuration
+    private void invalidateSnapshotAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateSnapshot();
+                }
+            });
+        } else {
+            invalidateSnapshot();
         }
     }
 
@@ -50,6 +127,9 @@ public class ConfigService {
         deliveryPriceRepository.saveAll(configAddCommand.getDeliveryPricings());
         openingHourRepository.saveAll(configAddCommand.getOpeningHours());
         configRepository.save(configMapper.toConfig(configAddCommand));
+        invalidateSnapshotAfterCommit();
+        catalogVersionService.changed(CatalogVersionService.Resource.CONFIG,
+                CatalogVersionService.Resource.DELIVERY_PRICES, CatalogVersionService.Resource.OPENING_HOURS);
     }
 
     public Config getConfig() {
@@ -60,21 +140,22 @@ public class ConfigService {
     }
 
     public List<DeliveryPricing> getDeliveryPrices() {
-        ensureSystemInitialized();
-        return deliveryPriceRepository.findAll();
+        return getSnapshot().getDeliveryPrices();
     }
 
     public List<OpeningHour> getOpeningHours() {
-        ensureSystemInitialized();
-        return openingHourRepository.findAll();
+        return getSnapshot().getOpeningHours();
     }
 
     @Transactional
     public void removeAll() {
-        ensureSystemInitialized();
+        ensureSystemInitializedInDatabase();
 
         deliveryPriceRepository.deleteAll();
         openingHourRepository.deleteAll();
         configRepository.deleteAll();
+        invalidateSnapshotAfterCommit();
+        catalogVersionService.changed(CatalogVersionService.Resource.CONFIG,
+                CatalogVersionService.Resource.DELIVERY_PRICES, CatalogVersionService.Resource.OPENING_HOURS);
     }
 }
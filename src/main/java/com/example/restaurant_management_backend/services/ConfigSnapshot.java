@@ -0,0 +1,79 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.DeliveryPricing;
+import com.example.restaurant_management_backend.jpa.model.OpeningHour;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the delivery pricing and opening hours, built once and read on every order and availability
+ * check. Delivery tiers are kept sorted by maximum range in plain arrays and looked up by binary search, opening
+ * hours are kept per day of week; neither lookup allocates. The entities must be treated as read-only.
+ */
+public final class ConfigSnapshot {
+
+    private final List<DeliveryPricing> deliveryPrices;
+    private final List<OpeningHour> openingHours;
+    private final int[] maximumRanges;
+    private final double[] prices;
+    private final Map<DayOfWeek, OpeningHour> openingHoursByDay;
+
+    public ConfigSnapshot(List<DeliveryPricing> deliveryPrices, List<OpeningHour> openingHours) {
+        List<DeliveryPricing> sorted = deliveryPrices.stream()
+                .sorted(Comparator.comparingInt(DeliveryPricing::getMaximumRange))
+                .toList();
+        this.deliveryPrices = sorted;
+        this.openingHours = List.copyOf(openingHours);
+        this.maximumRanges = sorted.stream().mapToInt(DeliveryPricing::getMaximumRange).toArray();
+        this.prices = sorted.stream().mapToDouble(DeliveryPricing::getPrice).toArray();
+        EnumMap<DayOfWeek, OpeningHour> byDay = new EnumMap<>(DayOfWeek.class);
+        for (OpeningHour openingHour : openingHours) {
+            if (openingHour.getDay() != null) {
+                byDay.putIfAbsent(openingHour.getDay(), openingHour);
+            }
+        }
+        this.openingHoursByDay = Collections.unmodifiableMap(byDay);
+    }
+
+    // Sorted by maximum range
+    public List<DeliveryPricing> getDeliveryPrices() {
+        return deliveryPrices;
+    }
+
+    public List<OpeningHour> getOpeningHours() {
+        return openingHours;
+    }
+
+    /**
+     * Price of the cheapest tier whose maximum range covers the distance, or NaN when the distance is beyond every
+     * tier. A tier priced 0 counts as missing, as it always has, so it does not silently make delivery free.
+     */
+    public double findDeliveryPrice(double distance) {
+        // First tier with maximumRange >= distance, ranges are whole kilometres
+        int index = Arrays.binarySearch(maximumRanges, (int) Math.ceil(distance));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Several tiers may share a range, take the first like a linear scan would
+            while (index > 0 && maximumRanges[index - 1] == maximumRanges[index]) {
+                index--;
+            }
+        }
+        return index < prices.length && prices[index] != 0 ? prices[index] : Double.NaN;
+    }
+
+    // Null when the restaurant is closed on that day
+    public OpeningHour getOpeningHour(DayOfWeek day) {
+        return openingHoursByDay.get(day);
+    }
+
+    public Map<DayOfWeek, OpeningHour> getOpeningHoursByDay() {
+        return openingHoursByDay;
+    }
+}
@@ -30,6 +30,7 @@ public class CustomerCRUDService {
             throw new NotFoundException("Nie znaleziono klienta o id " + id);
         }
         customerRepository.deleteById(id);
+        customerService.evictCachedUser(id);
     }
 
     public Customer updateCustomer(Long id, RegisterCustomerCommand registerCustomerCommand) {
@@ -47,7 +48,10 @@ public class CustomerCRUDService {
         if (registerCustomerCommand.getPassword() != null) {
             customer.setPasswordHash(passwordEncoder.encode(registerCustomerCommand.getPassword()));
         }
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        // The entry of the previous email is found by id
+        customerService.evictCachedUser(savedCustomer);
+        return savedCustomer;
     }
 
 }
@@ -2,13 +2,14 @@ package com.example.restaurant_management_backend.services;
 
 // import com.example.restaurant_management_backend.exceptions.AccessDeniedException;
 
+import com.example.restaurant_management_backend.configuration.security.AuthenticatedCustomer;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
 import com.example.restaurant_management_backend.jpa.model.Customer;
 import com.example.restaurant_management_backend.jpa.model.Privilege;
-import com.example.restaurant_management_backend.jpa.model.PrivilegeName;
 import com.example.restaurant_management_backend.jpa.repositories.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,6 +18,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,7 +32,9 @@ public class CustomerUserDetailsService implements UserDetailsService {
     public static final String NOT_FOUND_CUSTOMER_WITH_EMAIL = "Nie znaleziono klienta z email: ";
     public static final String NOT_FOUND_CLIENT_ID = "Nie znaleziono klienta o id ";
     public static final String NOT_FOUND_CLIENT_WITH_RESET_TOKEN = "Nie znaleziono klienta z tokenem resetującym ";
+    public static final String ACCESS_TO_DIFFERENT_CUSTOMER = "Próbujesz uzyskać dostęp do danych innego klienta!";
     private final CustomerRepository customerRepository;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -41,6 +46,50 @@ public class CustomerUserDetailsService implements UserDetailsService {
                 authorities);
     }
 
+    /**
+     * Principal of a request authenticated with a JWT. Served from the cache, without the password hash, which
+     * the token check does not need. Logging in still goes through loadUserByUsername and the database.
+     */
+    public AuthenticatedCustomer loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        return userDetailsCache.get(email, () -> toAuthenticatedCustomer(getCustomerByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException(NOT_FOUND_CUSTOMER_WITH_EMAIL + email))));
+    }
+
+    /**
+     * Must be called whenever the email, password or privilege of a customer changes or the customer is removed.
+     * Inside a transaction the entry is dropped once it commits, so a request in between cannot cache the old state
+     * again.
+     */
+    public void evictCachedUser(Customer customer) {
+        Long customerId = customer.getId();
+        String email = customer.getEmail();
+        afterCommit(() -> {
+            if (customerId != null) {
+                userDetailsCache.invalidateCustomer(customerId);
+            }
+            if (email != null) {
+                userDetailsCache.invalidate(email);
+            }
+        });
+    }
+
+    public void evictCachedUser(Long customerId) {
+        afterCommit(() -> userDetailsCache.invalidateCustomer(customerId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private Set<GrantedAuthority> convertPrivilegesToAuthorities(Privilege privilege) {
         return Set.of(new SimpleGrantedAuthority(privilege.getPrivilegeName().name()));
     }
@@ -72,29 +121,45 @@ public class CustomerUserDetailsService implements UserDetailsService {
     }
 
     public Customer save(Customer customer) {
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        evictCachedUser(customer);
+        return savedCustomer;
     }
 
     public long countAll() {
         return customerRepository.count();
     }
 
-    public Customer getCurrentCustomer() {
+    /**
+     * Id and privilege of the customer making the request. Requests authenticated by JwtAuthFilter already carry
+     * them in the security context; other authentications, e.g. the one set while logging in, are looked up.
+     */
+    public AuthenticatedCustomer getAuthenticatedCustomer() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return getCustomerByEmailOrThrowException(email);
+        if (authentication.getPrincipal() instanceof AuthenticatedCustomer authenticatedCustomer) {
+            return authenticatedCustomer;
+        }
+        return toAuthenticatedCustomer(getCustomerByEmailOrThrowException(authentication.getName()));
     }
 
     public void checkIfCustomerIsNotTryingToAccessDifferentCustomer(Long customerId) {
-        Customer customer = getCurrentCustomer();
-        if (PrivilegeName.ADMIN_PRIVILEGE.equals(customer.getPrivilege().getPrivilegeName())) {
+        if (SecurityContextHolder.getContext().getAuthentication() instanceof AnonymousAuthenticationToken) {
+            throw new AccessDeniedException(ACCESS_TO_DIFFERENT_CUSTOMER);
+        }
+        AuthenticatedCustomer customer = getAuthenticatedCustomer();
+        if (customer.isAdmin()) {
             return; // Admin can access any customer
         }
         if (!customer.getId().equals(customerId)) {
-            throw new AccessDeniedException("Próbujesz uzyskać dostęp do danych innego klienta!");
+            throw new AccessDeniedException(ACCESS_TO_DIFFERENT_CUSTOMER);
         }
     }
 
+    private AuthenticatedCustomer toAuthenticatedCustomer(Customer customer) {
+        return new AuthenticatedCustomer(customer.getId(), customer.getEmail(),
+                customer.getPrivilege().getPrivilegeName());
+    }
+
     public Optional<Customer> getCustomerById(Long id) {
         return customerRepository.findById(id);
     }
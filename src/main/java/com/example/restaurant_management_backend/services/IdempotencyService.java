@@ -0,0 +1,155 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers results of requests sent with an Idempotency-Key header, so that a retried request returns the first
+ * result instead of running again. Keys belong to the customer who sent them; guests use keys issued by
+ * {@link #issueGuestKey()}, which carry their expiry and a signature, so issuing them stores nothing and they cannot
+ * be forged. A key sent again with a different request body is rejected. Entries expire after a fixed time and the
+ * store never holds more than idempotency.max-entries keys. Kept in memory, like the signing key, so keys are only
+ * recognised by the instance that saw them first.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+    public static final String INVALID_KEY = "Klucz idempotencji musi mieć od 1 do " + MAX_KEY_LENGTH + " znaków";
+    public static final String UNKNOWN_GUEST_KEY = "Klucz idempotencji gościa musi zostać wydany przez serwer";
+    public static final String KEY_REUSED = "Klucz idempotencji został już użyty dla innego żądania";
+    private static final String GUEST_KEY_ALGORITHM = "HmacSHA256";
+
+    private final ObjectMapper objectMapper;
+    private final BoundedExpiringCache<String, Entry> results;
+    private final long ttlMillis;
+    // Generated on startup, as the JWT signing key
+    private final SecretKey guestKeySecret;
+
+    private record Entry(String fingerprint, CompletableFuture<Object> result) {
+    }
+
+    public IdempotencyService(ObjectMapper objectMapper,
+                              @Value("${idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${idempotency.ttl-minutes:60}") long ttlMinutes) {
+        this.objectMapper = objectMapper;
+        this.results = new BoundedExpiringCache<>(maxEntries, Duration.ofMinutes(ttlMinutes),
+                BoundedExpiringCache.Expiry.AFTER_WRITE);
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        try {
+            this.guestKeySecret = KeyGenerator.getInstance(GUEST_KEY_ALGORITHM).generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not create the guest key secret", e);
+        }
+    }
+
+    // <random id>.<expiry in epoch millis>.<HMAC of both>
+    public String issueGuestKey() {
+        String payload = UUID.randomUUID() + "." + (System.currentTimeMillis() + ttlMillis);
+        return payload + "." + sign(payload);
+    }
+
+    private boolean isIssuedGuestKey(String key) {
+        int signatureStart = key.lastIndexOf('.');
+        int expiryStart = key.lastIndexOf('.', signatureStart - 1);
+        if (expiryStart < 0) {
+            return false;
+        }
+        String payload = key.substring(0, signatureStart);
+        byte[] signature = key.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(payload).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        try {
+            return Long.parseLong(payload.substring(expiryStart + 1)) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(GUEST_KEY_ALGORITHM);
+            mac.init(guestKeySecret);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Could not sign the guest key", e);
+        }
+    }
+
+    /**
+     * Runs the action once per customer and key, a null customer id stands for a guest. Concurrent requests with the
+     * same key wait for the first one and get its result. When the action throws, the key is forgotten so the client
+     * can retry.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long customerId, String key, Object request, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(INVALID_KEY);
+        }
+        if (customerId == null && !isIssuedGuestKey(key)) {
+            throw new IllegalArgumentException(UNKNOWN_GUEST_KEY);
+        }
+
+        String scopedKey = (customerId == null ? "guest" : customerId.toString()) + ":" + key;
+        Entry created = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry entry = results.computeIfAbsent(scopedKey, ignored -> created);
+        if (!entry.fingerprint().equals(created.fingerprint())) {
+            throw new ResourceConflictException(KEY_REUSED);
+        }
+        CompletableFuture<Object> result = entry.result();
+
+        if (entry == created) {
+            try {
+                T value = action.get();
+                result.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                results.remove(scopedKey, entry);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return (T) result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request", e);
+        }
+    }
+}
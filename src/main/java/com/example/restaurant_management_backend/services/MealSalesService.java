@@ -0,0 +1,73 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.MealQuantity;
+import com.example.restaurant_management_backend.jpa.model.MealSalesCounter;
+import com.example.restaurant_management_backend.jpa.repositories.MealSalesCounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class MealSalesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MealSalesService.class);
+    private final MealSalesCounterRepository mealSalesCounterRepository;
+
+    @Transactional
+    public void recordSale(List<MealQuantity> mealQuantities) {
+        applyDelta(mealQuantities, 1);
+    }
+
+    @Transactional
+    public void revertSale(List<MealQuantity> mealQuantities) {
+        applyDelta(mealQuantities, -1);
+    }
+
+    public Map<Long, Long> getQuantitiesSold() {
+        Map<Long, Long> quantitiesSold = new HashMap<>();
+        for (MealSalesCounter counter : mealSalesCounterRepository.findAll()) {
+            quantitiesSold.put(counter.getMealId(), counter.getQuantitySold());
+        }
+        return quantitiesSold;
+    }
+
+    /**
+     * Builds the counters from the order history on the first startup that finds none, later ones leave them as they
+     * are. The exclusive lock waits for orders that are updating counters to commit and holds new ones back until the
+     * rebuild commits, so every order is counted exactly once, also while other instances are taking orders. Counters
+     * such orders created after the check are dropped and counted again by the backfill.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildCounters() {
+        if (mealSalesCounterRepository.count() > 0) {
+            return;
+        }
+        mealSalesCounterRepository.lockForRebuild();
+        mealSalesCounterRepository.deleteAllCounters();
+        mealSalesCounterRepository.backfillFromOrders();
+        logger.info("Meal sales counters rebuilt from order history");
+    }
+
+    private void applyDelta(List<MealQuantity> mealQuantities, int sign) {
+        if (mealQuantities == null) {
+            return;
+        }
+        mealSalesCounterRepository.lockForUpdate();
+        // The same meal may appear on several order lines, so merge them into one update per meal
+        Map<Long, Long> deltas = new HashMap<>();
+        for (MealQuantity mealQuantity : mealQuantities) {
+            deltas.merge(mealQuantity.getMealId(), (long) mealQuantity.getQuantity() * sign, Long::sum);
+        }
+        deltas.forEach(mealSalesCounterRepository::addToQuantitySold);
+    }
+}
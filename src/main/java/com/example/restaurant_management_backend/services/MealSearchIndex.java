@@ -0,0 +1,218 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index over meal names and ingredients, built together with each menu catalog snapshot.
+ * Text is lower-cased and stripped of Polish diacritics, so "zurek" finds "Żurek". Every word of the query has to
+ * match a word of the meal exactly, as a prefix or with a typo (one edit or swap for words of 4 to 7 letters, two for
+ * longer ones); name matches outrank ingredient matches and exact matches outrank prefixes and typos.
+ */
+public final class MealSearchIndex {
+
+    private static final double NAME_WEIGHT = 3;
+    private static final double INGREDIENT_WEIGHT = 1;
+    private static final double EXACT = 1;
+    private static final double PREFIX = 0.7;
+    private static final double TYPO = 0.5;
+    private static final double NAME_INFIX = 0.3;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Locale POLISH = Locale.forLanguageTag("pl");
+
+    private record Posting(MenuCatalogService.CatalogEntry entry, double weight) {
+    }
+
+    private record Document(MenuCatalogService.CatalogEntry entry, String normalizedName, Set<String> allergens) {
+    }
+
+    private final Map<String, List<Posting>> postings;
+    // Same terms sorted, prefixes are a contiguous range found by binary search
+    private final String[] terms;
+    private final Map<Long, Document> documents;
+
+    public MealSearchIndex(Collection<MenuCatalogService.CatalogEntry> entries) {
+        Map<String, Map<Long, Posting>> byTerm = new HashMap<>();
+        Map<Long, Document> documents = new HashMap<>();
+        for (MenuCatalogService.CatalogEntry entry : entries) {
+            Meal meal = entry.meal();
+            for (String ingredient : entry.ingredients()) {
+                addTerms(byTerm, entry, ingredient, INGREDIENT_WEIGHT);
+            }
+            addTerms(byTerm, entry, meal.getName(), NAME_WEIGHT);
+            Set<String> allergens = new HashSet<>();
+            entry.allergens().forEach(allergen -> allergens.add(normalize(allergen)));
+            documents.put(meal.getId(), new Document(entry, normalize(meal.getName()), allergens));
+        }
+        this.postings = new HashMap<>();
+        byTerm.forEach((term, byMeal) -> postings.put(term, List.copyOf(byMeal.values())));
+        this.terms = postings.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        this.documents = documents;
+    }
+
+    /**
+     * Meals matching every word of the query, best match first. Meals containing any of the excluded allergens or
+     * outside the category (when given) are left out. A query without words matches every meal when a category or
+     * an allergen is given, and nothing otherwise.
+     */
+    public List<Meal> search(String query, Collection<String> excludedAllergens, Long categoryId) {
+        Set<String> excluded = new HashSet<>();
+        if (excludedAllergens != null) {
+            excludedAllergens.forEach(allergen -> excluded.add(normalize(allergen)));
+        }
+        excluded.remove("");
+
+        List<String> words = tokenize(query);
+        if (words.isEmpty() && categoryId == null && excluded.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = null;
+        for (String word : words) {
+            Map<Long, Double> wordScores = scoreWord(word);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<Long, Double> combined = new HashMap<>();
+                for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                    Double wordScore = wordScores.get(score.getKey());
+                    if (wordScore != null) {
+                        combined.put(score.getKey(), score.getValue() + wordScore);
+                    }
+                }
+                scores = combined;
+            }
+        }
+
+        Map<Long, Double> finalScores = scores;
+        Collection<Long> candidates = scores == null ? documents.keySet() : scores.keySet();
+        return candidates.stream()
+                .map(documents::get)
+                .filter(document -> categoryId == null || categoryId.equals(document.entry().meal().getCategoryId()))
+                .filter(document -> document.allergens().stream().noneMatch(excluded::contains))
+                .sorted(Comparator.<Document>comparingDouble(document -> finalScores == null ? 0
+                                : -finalScores.get(document.entry().meal().getId()))
+                        .thenComparing(Document::normalizedName)
+                        .thenComparing(document -> document.entry().meal().getId()))
+                .map(document -> document.entry().meal())
+                .toList();
+    }
+
+    // Best score of every meal for a single query word
+    private Map<Long, Double> scoreWord(String word) {
+        Map<Long, Double> scores = new HashMap<>();
+        addPostings(scores, postings.get(word), EXACT);
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            int from = Arrays.binarySearch(terms, word);
+            from = from < 0 ? -from - 1 : from + 1;
+            for (int i = from; i < terms.length && terms[i].startsWith(word); i++) {
+                addPostings(scores, postings.get(terms[i]), PREFIX);
+            }
+        }
+        int maxDistance = word.length() < MIN_TYPO_LENGTH ? 0 : word.length() < 8 ? 1 : 2;
+        if (maxDistance > 0) {
+            for (String term : terms) {
+                if (Math.abs(term.length() - word.length()) <= maxDistance && !term.equals(word)
+                        && editDistance(word, term, maxDistance) <= maxDistance) {
+                    addPostings(scores, postings.get(term), TYPO);
+                }
+            }
+        }
+        // Keeps substring matches inside names working, like the former LIKE search
+        if (word.length() >= 3) {
+            for (Document document : documents.values()) {
+                if (document.normalizedName().contains(word)) {
+                    scores.merge(document.entry().meal().getId(), NAME_WEIGHT * NAME_INFIX, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void addPostings(Map<Long, Double> scores, List<Posting> postings, double matchQuality) {
+        if (postings == null) {
+            return;
+        }
+        for (Posting posting : postings) {
+            scores.merge(posting.entry().meal().getId(), posting.weight() * matchQuality, Math::max);
+        }
+    }
+
+    private static void addTerms(Map<String, Map<Long, Posting>> byTerm, MenuCatalogService.CatalogEntry entry,
+                                 String text, double weight) {
+        Long mealId = entry.meal().getId();
+        for (String term : tokenize(text)) {
+            byTerm.computeIfAbsent(term, key -> new LinkedHashMap<>())
+                    .merge(mealId, new Posting(entry, weight), (a, b) -> a.weight() >= b.weight() ? a : b);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : NON_WORD.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Lower case without diacritics; ł has no decomposition and is mapped by hand
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(POLISH), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").replace('ł', 'l').trim();
+    }
+
+    // Edit distance counting swapped neighbours as one edit (optimal string alignment), gives up with
+    // maxDistance + 1 as soon as the distance is known to be larger
+    static int editDistance(String a, String b, int maxDistance) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -10,7 +10,9 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -21,17 +23,25 @@ public class MealService {
     private final MealRepository mealRepository;
     private final CategoryRepository categoryRepository;
     private final MealMapper mealMapper;
+    private final MenuCatalogService menuCatalogService;
+    private final MenuPublicationService menuPublicationService;
 
-    public List<Meal> searchMealsByName(String name) {
-        return mealRepository.findByNameContainingIgnoreCase(name);
+    // Ranked search over names and ingredients of the menu catalog, categoryId and excludedAllergens are optional
+    public List<Meal> searchMeals(String query, Collection<String> excludedAllergens, Long categoryId) {
+        return menuCatalogService.search(query, excludedAllergens, categoryId);
     }
 
     public List<Meal> getAllMeals() {
-        return mealRepository.findAll();
+        return menuCatalogService.getAllMeals();
     }
 
+    public long countMeals() {
+        return menuCatalogService.size();
+    }
+
+    // Returns a read-only copy from the menu catalog, updates go through updateMeal
     public Meal getMealById(Long id) {
-        return mealRepository.findById(id)
+        return menuCatalogService.findMeal(id)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_MEAL_ID + id));
     }
 
@@ -39,15 +49,36 @@ public class MealService {
         validateCategory(mealAddCommand.getCategoryId());
         validateRemovableIngredients(mealAddCommand);
         Meal meal = mealMapper.toMeal(mealAddCommand);
-        return mealRepository.save(meal);
+        Meal savedMeal = mealRepository.save(meal);
+        menuCatalogService.put(savedMeal);
+        return savedMeal;
     }
 
+    // Validates every meal before saving any, so a bad entry does not leave half of the import behind
+    @Transactional
+    public List<Meal> addMeals(List<MealAddCommand> mealAddCommands) {
+        List<Meal> meals = mealAddCommands.stream()
+                .map(mealAddCommand -> {
+                    validateCategory(mealAddCommand.getCategoryId());
+                    validateRemovableIngredients(mealAddCommand);
+                    return mealMapper.toMeal(mealAddCommand);
+                })
+                .toList();
+        List<Meal> savedMeals = mealRepository.saveAll(meals);
+        savedMeals.forEach(menuCatalogService::put);
+        return savedMeals;
+    }
+
+    @Transactional
     public Meal updateMeal(Long id, MealAddCommand mealAddCommand) {
-        Meal meal = getMealById(id);
+        Meal meal = mealRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_MEAL_ID + id));
         validateCategory(mealAddCommand.getCategoryId());
         validateRemovableIngredients(mealAddCommand);
         mealMapper.updateMeal(meal, mealAddCommand);
-        return mealRepository.save(meal);
+        Meal savedMeal = mealRepository.save(meal);
+        menuCatalogService.put(savedMeal);
+        return savedMeal;
     }
 
     public void deleteMealById(Long id) {
@@ -55,23 +86,45 @@ public class MealService {
             throw new NotFoundException(NOT_FOUND_MEAL_ID + id);
         }
         mealRepository.deleteById(id);
+        menuCatalogService.remove(id);
     }
 
     @Transactional
     public void deleteMealsByCategoryId(Long categoryId) {
         validateCategory(categoryId);
         mealRepository.deleteByCategoryId(categoryId);
+        menuCatalogService.removeCategory(categoryId);
     }
 
     public List<Meal> getMealsByCategoryId(Long categoryId) {
         validateCategory(categoryId);
-        return mealRepository.findByCategoryId(categoryId);
+        return menuCatalogService.getMealsByCategoryId(categoryId);
+    }
+
+    // Pre-rendered JSON of getAllMeals
+    public MenuPublicationService.Payload getAllMealsPayload() {
+        return menuPublicationService.getMenu();
+    }
+
+    // Pre-rendered JSON of getMealsByCategoryId; a category with meals cannot be deleted, so only empty ones are checked
+    public MenuPublicationService.Payload getMealsByCategoryIdPayload(Long categoryId) {
+        MenuPublicationService.Payload payload = menuPublicationService.getCategory(categoryId);
+        if (payload == null) {
+            validateCategory(categoryId);
+            return MenuPublicationService.EMPTY_LIST;
+        }
+        return payload;
+    }
+
+    public Map<Long, MenuCatalogService.CatalogEntry> getMealsByIds(Collection<Long> mealIds) {
+        return menuCatalogService.findEntries(mealIds);
     }
 
     public boolean mealContainsIngredients(Long mealId, List<String> ingredients) {
-        Meal meal = getMealById(mealId);
+        MenuCatalogService.CatalogEntry entry = menuCatalogService.findEntry(mealId)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_MEAL_ID + mealId));
         // Check if all ingredients are present in the meal
-        return meal.getIngredients().containsAll(ingredients);
+        return entry.ingredients().containsAll(ingredients);
     }
 
     private void validateCategory(Long categoryId) {
@@ -81,7 +134,7 @@ public class MealService {
     }
 
     public boolean mealExists(Long mealId) {
-        return mealRepository.existsById(mealId);
+        return menuCatalogService.contains(mealId);
     }
     
     private void validateRemovableIngredients(MealAddCommand mealAddCommand) {
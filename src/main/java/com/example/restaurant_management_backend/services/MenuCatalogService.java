@@ -0,0 +1,215 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.example.restaurant_management_backend.jpa.repositories.MealRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * In-memory, immutable snapshot of the menu together with its search index. Reads do not touch the database, writes
+ * done by MealService replace the snapshot once their transaction is committed. Changes made through another instance
+ * show up when the snapshot is reloaded on the first read after it got older than menu.catalog.max-age-seconds. Meals
+ * handed out are detached copies with unmodifiable collections, they must not be used for updates.
+ */
+@Service
+public class MenuCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuCatalogService.class);
+    private final MealRepository mealRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long maxAgeNanos;
+
+    // null until the first read, replaced as a whole on every change
+    private volatile Snapshot snapshot;
+
+    public MenuCatalogService(MealRepository mealRepository, PlatformTransactionManager transactionManager,
+                              @Value("${menu.catalog.max-age-seconds:60}") long maxAgeSeconds) {
+        this.mealRepository = mealRepository;
+        this.maxAgeNanos = Duration.ofSeconds(maxAgeSeconds).toNanos();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public record CatalogEntry(Meal meal, Set<String> ingredients, Set<String> removableIngredients,
+                               Set<String> allergens) {
+    }
+
+    // loadedAt is the System.nanoTime() of the database read, patches keep the one of the snapshot they change
+    private record Snapshot(Map<Long, CatalogEntry> entries, List<Meal> meals, MealSearchIndex searchIndex,
+                            long loadedAt) {
+    }
+
+    public Optional<Meal> findMeal(Long mealId) {
+        return findEntry(mealId).map(CatalogEntry::meal);
+    }
+
+    public Optional<CatalogEntry> findEntry(Long mealId) {
+        return Optional.ofNullable(current().entries().get(mealId));
+    }
+
+    // Resolves all ids against a single snapshot, ids missing from the menu are left out of the result
+    public Map<Long, CatalogEntry> findEntries(Collection<Long> mealIds) {
+        Map<Long, CatalogEntry> entries = current().entries();
+        Map<Long, CatalogEntry> found = new HashMap<>();
+        for (Long mealId : mealIds) {
+            CatalogEntry entry = entries.get(mealId);
+            if (entry != null) {
+                found.put(mealId, entry);
+            }
+        }
+        return found;
+    }
+
+    public boolean contains(Long mealId) {
+        return current().entries().containsKey(mealId);
+    }
+
+    public List<Meal> getAllMeals() {
+        return current().meals();
+    }
+
+    public List<Meal> getMealsByCategoryId(Long categoryId) {
+        return current().meals().stream()
+                .filter(meal -> categoryId.equals(meal.getCategoryId()))
+                .toList();
+    }
+
+    // Ranked full-text search, see MealSearchIndex
+    public List<Meal> search(String query, Collection<String> excludedAllergens, Long categoryId) {
+        return current().searchIndex().search(query, excludedAllergens, categoryId);
+    }
+
+    public Collection<CatalogEntry> getEntries() {
+        return current().entries().values();
+    }
+
+    public int size() {
+        return current().meals().size();
+    }
+
+    // The copy is made right away, while lazy collections of the saved meal can still be loaded
+    public void put(Meal meal) {
+        CatalogEntry entry = toEntry(meal);
+        afterCommit(() -> patch(entries -> entries.put(entry.meal().getId(), entry)));
+    }
+
+    public void remove(Long mealId) {
+        afterCommit(() -> patch(entries -> entries.remove(mealId)));
+    }
+
+    public void removeCategory(Long categoryId) {
+        afterCommit(() -> patch(entries -> entries.values()
+                .removeIf(entry -> categoryId.equals(entry.meal().getCategoryId()))));
+    }
+
+    public synchronized void reload() {
+        snapshot = load();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isOutdated(current)) {
+            synchronized (this) {
+                if (isOutdated(snapshot)) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private boolean isOutdated(Snapshot current) {
+        return current == null || System.nanoTime() - current.loadedAt() > maxAgeNanos;
+    }
+
+    // Patches and loads are serialized, a patch on a not yet loaded catalog is covered by the later load
+    private synchronized void patch(Consumer<Map<Long, CatalogEntry>> change) {
+        if (snapshot == null) {
+            return;
+        }
+        Map<Long, CatalogEntry> entries = new HashMap<>(snapshot.entries());
+        change.accept(entries);
+        snapshot = toSnapshot(entries, snapshot.loadedAt());
+    }
+
+    private Snapshot load() {
+        long loadedAt = System.nanoTime();
+        Snapshot loaded = readOnlyTransaction.execute(status -> {
+            Map<Long, CatalogEntry> entries = new HashMap<>();
+            for (Meal meal : mealRepository.findAll()) {
+                entries.put(meal.getId(), toEntry(meal));
+            }
+            return toSnapshot(entries, loadedAt);
+        });
+        logger.debug("Menu catalog loaded with {} meals", loaded.meals().size());
+        return loaded;
+    }
+
+    private static Snapshot toSnapshot(Map<Long, CatalogEntry> entries, long loadedAt) {
+        List<Meal> meals = entries.values().stream()
+                .map(CatalogEntry::meal)
+                .sorted(Comparator.comparing(Meal::getId))
+                .toList();
+        return new Snapshot(Collections.unmodifiableMap(entries), meals, new MealSearchIndex(entries.values()),
+                loadedAt);
+    }
+
+    private static CatalogEntry toEntry(Meal meal) {
+        Meal copy = Meal.builder()
+                .id(meal.getId())
+                .name(meal.getName())
+                .price(meal.getPrice())
+                .photographUrl(meal.getPhotographUrl())
+                .ingredients(unmodifiableCopy(meal.getIngredients()))
+                .removableIngredList(unmodifiableCopy(meal.getRemovableIngredList()))
+                .weightOrVolume(meal.getWeightOrVolume())
+                .unitType(meal.getUnitType())
+                .categoryId(meal.getCategoryId())
+                .allergens(unmodifiableCopy(meal.getAllergens()))
+                .calories(meal.getCalories())
+                .build();
+        return new CatalogEntry(copy, toSet(meal.getIngredients()), toSet(meal.getRemovableIngredList()),
+                toSet(meal.getAllergens()));
+    }
+
+    private static List<String> unmodifiableCopy(List<String> list) {
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static Set<String> toSet(List<String> list) {
+        return list == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(list));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Menu JSON rendered once per menu catalog snapshot, for the whole menu and for every category, together with gzip
+ * compressed copies. Reads hand out the same byte arrays until the catalog changes, so serving the menu neither
+ * serializes nor compresses anything. Rendering happens on the first read after a change, a bulk import replacing the
+ * snapshot many times renders once.
+ */
+@Service
+public class MenuPublicationService {
+
+    public static final Payload EMPTY_LIST = new Payload("[]".getBytes(StandardCharsets.UTF_8), null);
+
+    private final MenuCatalogService menuCatalogService;
+    private final ObjectMapper objectMapper;
+
+    // The meals list of the catalog snapshot it was rendered from, a new snapshot comes with a new list
+    private volatile Publication publication;
+
+    /**
+     * Rendered JSON, its gzip copy, null when compressing would not make the payload smaller, and the digest of the
+     * JSON used in ETags. The arrays are shared and must not be modified.
+     */
+    public record Payload(byte[] json, byte[] gzip, String digest) {
+
+        public Payload(byte[] json, byte[] gzip) {
+            this(json, gzip, CatalogVersionService.digest(json));
+        }
+    }
+
+    private record Publication(List<Meal> meals, Payload menu, Map<Long, Payload> categories) {
+    }
+
+    public MenuPublicationService(MenuCatalogService menuCatalogService, ObjectMapper objectMapper) {
+        this.menuCatalogService = menuCatalogService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Payload getMenu() {
+        return current().menu();
+    }
+
+    // Null when no meal of the menu belongs to the category
+    public Payload getCategory(Long categoryId) {
+        return current().categories().get(categoryId);
+    }
+
+    private Publication current() {
+        List<Meal> meals = menuCatalogService.getAllMeals();
+        Publication current = publication;
+        if (current == null || current.meals() != meals) {
+            current = publish(meals);
+        }
+        return current;
+    }
+
+    private synchronized Publication publish(List<Meal> meals) {
+        Publication current = publication;
+        if (current != null && current.meals() == meals) {
+            return current;
+        }
+        Map<Long, Payload> categories = new HashMap<>();
+        meals.stream()
+                .filter(meal -> meal.getCategoryId() != null)
+                .collect(Collectors.groupingBy(Meal::getCategoryId))
+                .forEach((categoryId, categoryMeals) -> categories.put(categoryId, render(categoryMeals)));
+        current = new Publication(meals, render(meals), Map.copyOf(categories));
+        // A reader holding an older list must not replace a newer publication
+        if (publication == null || menuCatalogService.getAllMeals() == meals) {
+            publication = current;
+        }
+        return current;
+    }
+
+    private Payload render(List<Meal> meals) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(meals);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render the menu", e);
+        }
+        byte[] gzip = gzip(json);
+        return new Payload(json, gzip.length < json.length ? gzip : null);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -1,18 +1,29 @@
 package com.example.restaurant_management_backend.services;
 
 import com.example.restaurant_management_backend.dto.AverageRatingResponseDTO;
+import com.example.restaurant_management_backend.dto.MealRatingResponseDTO;
 import com.example.restaurant_management_backend.dto.OpinionResponseDTO;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
 import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
 import com.example.restaurant_management_backend.jpa.model.Customer;
+import com.example.restaurant_management_backend.jpa.model.MealRating;
 import com.example.restaurant_management_backend.jpa.model.Opinion;
 import com.example.restaurant_management_backend.jpa.model.command.OpinionAddCommand;
+import com.example.restaurant_management_backend.jpa.repositories.MealRatingRepository;
 import com.example.restaurant_management_backend.jpa.repositories.OpinionRepository;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealRatingSummary;
 import com.example.restaurant_management_backend.mappers.OpinionMapper;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,12 +31,15 @@ import java.util.stream.Collectors;
 public class OpinionService {
     public static final String NOT_FOUND_OPINIONS = "Nie znaleziono opinii";
     public static final String OPINION_ALREADY_EXISTS = "Opinia dla tego dania już istnieje";
+    private static final Logger logger = LoggerFactory.getLogger(OpinionService.class);
 
     private final MealService mealService;
     private final OpinionRepository opinionRepository;
     private final CustomerUserDetailsService customerService;
     private final OpinionMapper opinionMapper;
+    private final MealRatingRepository mealRatingRepository;
 
+    @Transactional
     public OpinionResponseDTO addOpinion(OpinionAddCommand opinionAddCommand) {
         customerService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(opinionAddCommand.getCustomerId());
         Customer customer = customerService.getCustomerByIdOrThrowException(opinionAddCommand.getCustomerId());
@@ -41,19 +55,30 @@ public class OpinionService {
         opinion.setComment(opinionAddCommand.getComment());
 
         opinionRepository.save(opinion);
+        applyRatingDelta(opinionAddCommand.getMealId(), null, opinion.getRating());
         return opinionMapper.mapToDto(opinion);
     }
 
     public AverageRatingResponseDTO getAverageRating(Long mealId) {
-        List<Opinion> opinions = opinionRepository.findByMealId(mealId);
-        if (opinions.isEmpty()) {
-            return new AverageRatingResponseDTO(null, 0);
-        } else {
-            double average = opinions.stream()
-                    .mapToInt(Opinion::getRating)
-                    .average().orElse(5.0); // 5.0 will never be displayed, it's just a placeholder
-            return new AverageRatingResponseDTO(average, opinions.size());
-        }
+        return mealRatingRepository.findById(mealId)
+                .filter(mealRating -> mealRating.getRatingCount() > 0)
+                .map(mealRating -> new AverageRatingResponseDTO(averageOf(mealRating),
+                        Math.toIntExact(mealRating.getRatingCount())))
+                .orElseGet(() -> new AverageRatingResponseDTO(null, 0));
+    }
+
+    // Ratings of many meals in one query, e.g. for all meal cards of the menu page
+    public List<MealRatingResponseDTO> getRatings(List<Long> mealIds) {
+        Map<Long, MealRating> ratings = mealRatingRepository.findAllById(mealIds).stream()
+                .collect(Collectors.toMap(MealRating::getMealId, Function.identity()));
+        return mealIds.stream()
+                .distinct()
+                .map(mealId -> toRatingResponse(mealId, ratings.get(mealId)))
+                .collect(Collectors.toList());
+    }
+
+    public List<MealRatingSummary> getRatingSummaries() {
+        return mealRatingRepository.summarizeRatings();
     }
 
     public List<OpinionResponseDTO> getOpinionsForCustomer(Long customerId) {
@@ -69,6 +94,7 @@ public class OpinionService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public OpinionResponseDTO updateOpinion(OpinionAddCommand opinionAddCommand) {
         customerService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(opinionAddCommand.getCustomerId());
         Customer customer = customerService.getCustomerByIdOrThrowException(opinionAddCommand.getCustomerId());
@@ -76,10 +102,58 @@ public class OpinionService {
         Opinion opinion = opinionRepository.findByMealIdAndCustomerId(opinionAddCommand.getMealId(), customer.getId())
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_OPINIONS));
 
+        Integer previousRating = opinion.getRating();
         opinion.setRating(opinionAddCommand.getRating());
         opinion.setComment(opinionAddCommand.getComment());
         opinionRepository.save(opinion);
+        applyRatingDelta(opinionAddCommand.getMealId(), previousRating, opinion.getRating());
 
         return opinionMapper.mapToDto(opinion);
     }
+
+    // Built on the first startup that finds the table empty, like MealSalesService.rebuildCounters, see there
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildRatings() {
+        if (mealRatingRepository.count() > 0) {
+            return;
+        }
+        mealRatingRepository.lockForRebuild();
+        mealRatingRepository.deleteAllRatings();
+        mealRatingRepository.backfillFromOpinions();
+        logger.info("Meal rating aggregates rebuilt from opinions");
+    }
+
+    private void applyRatingDelta(Long mealId, Integer removedRating, Integer addedRating) {
+        // index is the number of stars, 0 is unused
+        long[] histogramDelta = new long[6];
+        long sumDelta = 0;
+        long countDelta = 0;
+        if (removedRating != null) {
+            histogramDelta[removedRating]--;
+            sumDelta -= removedRating;
+            countDelta--;
+        }
+        if (addedRating != null) {
+            histogramDelta[addedRating]++;
+            sumDelta += addedRating;
+            countDelta++;
+        }
+        mealRatingRepository.lockForUpdate();
+        mealRatingRepository.addToRating(mealId, sumDelta, countDelta, histogramDelta[1], histogramDelta[2],
+                histogramDelta[3], histogramDelta[4], histogramDelta[5]);
+    }
+
+    private MealRatingResponseDTO toRatingResponse(Long mealId, MealRating mealRating) {
+        if (mealRating == null || mealRating.getRatingCount() == 0) {
+            return new MealRatingResponseDTO(mealId, null, 0, List.of(0L, 0L, 0L, 0L, 0L));
+        }
+        return new MealRatingResponseDTO(mealId, averageOf(mealRating), mealRating.getRatingCount(),
+                List.of(mealRating.getOneStarCount(), mealRating.getTwoStarCount(), mealRating.getThreeStarCount(),
+                        mealRating.getFourStarCount(), mealRating.getFiveStarCount()));
+    }
+
+    private double averageOf(MealRating mealRating) {
+        return (double) mealRating.getRatingSum() / mealRating.getRatingCount();
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.repositories.OrderHourlyRollupRepository;
+import com.example.restaurant_management_backend.jpa.repositories.projections.EarningsByYearMonth;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OrderRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+    private final OrderHourlyRollupRepository orderHourlyRollupRepository;
+
+    @Transactional
+    public void recordOrder(Order order) {
+        applyDelta(order, 1);
+    }
+
+    // Has to be called with the values the order was recorded with, i.e. before it is modified
+    @Transactional
+    public void revertOrder(Order order) {
+        applyDelta(order, -1);
+    }
+
+    public List<OrdersByDayHour> getOrdersByDayAndHour() {
+        return orderHourlyRollupRepository.sumOrdersByDayAndHour();
+    }
+
+    public List<EarningsByYearMonth> getEarningsByYearMonth() {
+        return orderHourlyRollupRepository.sumEarningsByYearMonth();
+    }
+
+    // Built on the first startup that finds the table empty, like MealSalesService.rebuildCounters, see there
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildRollup() {
+        if (orderHourlyRollupRepository.count() > 0) {
+            return;
+        }
+        orderHourlyRollupRepository.lockForRebuild();
+        orderHourlyRollupRepository.deleteAllBuckets();
+        orderHourlyRollupRepository.backfillFromOrders();
+        logger.info("Hourly order rollup rebuilt from order history");
+    }
+
+    private void applyDelta(Order order, int sign) {
+        orderHourlyRollupRepository.lockForUpdate();
+        orderHourlyRollupRepository.addToBucket(
+                order.getDateTime().truncatedTo(ChronoUnit.HOURS),
+                order.getType().ordinal(),
+                sign,
+                toGrosze(sign * order.getOrderPrice()),
+                toGrosze(sign * order.getDeliveryPrice()));
+    }
+
+    // Rounded like the rebuild rounds each order, half away from zero so a reverted order cancels exactly
+    private static BigDecimal toGrosze(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,21 +1,30 @@
 package com.example.restaurant_management_backend.services;
 
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
+import com.example.restaurant_management_backend.dto.OrderPaymentResponseDTO;
 import com.example.restaurant_management_backend.exceptions.InvalidReservationException;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
 import com.example.restaurant_management_backend.jpa.model.*;
 import com.example.restaurant_management_backend.jpa.model.command.OrderAddCommand;
 import com.example.restaurant_management_backend.jpa.repositories.OrderRepository;
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
+import com.example.restaurant_management_backend.jpa.repositories.projections.EarningsByYearMonth;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealQuantitySold;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
@@ -27,21 +36,40 @@ public class OrderService {
     private final ConfigService configService;
     private final TableReservationService tableReservationService;
     private final CouponService couponService;
+    private final MealSalesService mealSalesService;
+    private final OrderRollupService orderRollupService;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
 
-    public OrderService(MealService mealService, OrderRepository orderRepository, CustomerUserDetailsService customerService, ConfigService configService, TableReservationService tableReservationService, CouponService couponService) {
+    public OrderService(MealService mealService, OrderRepository orderRepository, CustomerUserDetailsService customerService, ConfigService configService, TableReservationService tableReservationService, CouponService couponService, MealSalesService mealSalesService, OrderRollupService orderRollupService, PaymentService paymentService, PlatformTransactionManager transactionManager) {
         this.mealService = mealService;
         this.orderRepository = orderRepository;
         this.customerService = customerService;
         this.configService = configService;
         this.tableReservationService = tableReservationService;
         this.couponService = couponService;
-        Stripe.apiKey = "sk_test_51Q4Qqx6w25OikflfKXNobStEmR6z73dBnYZ0LSPh6fIvjJUwcUbHIE2nLSx9NNrZfRrPvivlvXp4eVOpAqiSO8SV00pmOtUcMF";
+        this.mealSalesService = mealSalesService;
+        this.orderRollupService = orderRollupService;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<Order> getOrders() {
         return orderRepository.findAll();
     }
 
+    // Newest orders first, [from, to] are whole days
+    public CursorPageDTO<Order> getOrdersPage(String cursor, int limit, OrderStatus status, OrderType type,
+                                              Long customerId, LocalDate from, LocalDate to) {
+        CursorPageDTO.validateLimit(limit);
+        CursorPageDTO.Cursor after = CursorPageDTO.Cursor.parse(cursor);
+        List<Order> orders = orderRepository.findPage(after == null ? null : after.at(),
+                after == null ? null : after.id(), status, type, customerId,
+                from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay(),
+                PageRequest.ofSize(limit + 1));
+        return CursorPageDTO.of(orders, limit, order -> new CursorPageDTO.Cursor(order.getDateTime(), order.getId()));
+    }
+
     public Optional<Order> getOrderById(Long id) {
         Optional<Order> order = orderRepository.findById(id);
         if (order.isEmpty()) {
@@ -55,11 +83,40 @@ public class OrderService {
         return orderRepository.findByCustomerId(customerId);
     }
 
+    // Guests order without a customer id or with 0, customers only for themselves unless they are admins
+    public void checkCustomerOfNewOrder(Long customerId) {
+        if (customerId != null && customerId != 0) {
+            customerService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(customerId);
+        }
+    }
+
+    /**
+     * Saves the order in one transaction and creates its payment afterwards, so no connection or lock is held while
+     * the payment gateway answers. In synchronous mode a failed payment is not an exception: the order stays saved and
+     * is returned with payment status FAILED, so the caller learns its id instead of placing it again.
+     */
     public Order addOrder(OrderAddCommand request) {
-        validateOrderAddCommand(request);
+        Order savedOrder = transactionTemplate.execute(status -> saveNewOrder(request));
+        if (paymentService.isAsync()) {
+            return savedOrder;
+        }
+        try {
+            savedOrder.setPaymentIntentClientSecret(
+                    paymentService.createClientSecret(savedOrder.getId(), totalAmount(savedOrder)));
+            savedOrder.setPaymentStatus(PaymentStatus.CREATED);
+        } catch (PaymentGatewayException e) {
+            // PaymentService has already logged it and stored FAILED on the committed order
+            savedOrder.setPaymentStatus(PaymentStatus.FAILED);
+        }
+        return savedOrder;
+    }
+
+    private Order saveNewOrder(OrderAddCommand request) {
+        checkCustomerOfNewOrder(request.getCustomerId());
+        final var meals = validateOrderAddCommand(request);
 
         // Calculate order and delivery prices
-        double orderPrice = calculateOrderPrice(request.getMealIds(), request.getCouponCode(), request.getCustomerId());
+        double orderPrice = calculateOrderPrice(request.getMealIds(), meals, request.getCouponCode(), request.getCustomerId());
         double deliveryPrice = countDeliveryPrice(request.getDeliveryDistance());
 
         LocalDateTime now = LocalDateTime.now();
@@ -92,37 +149,42 @@ public class OrderService {
                 request.getDeliveryDistance(),
                 tableReservation);
 
-        // Calculate the total amount in the smallest currency unit (e.g., cents)
-        var totalAmount = (orderPrice + deliveryPrice) * 100;
-
-        // Create a Stripe Payment Intent
-        try {
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount((long) totalAmount)
-                    .setCurrency("pln")
-                    .setAutomaticPaymentMethods(
-                            PaymentIntentCreateParams.AutomaticPaymentMethods.builder().setEnabled(true).build())
-                    .build();
-
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
-            order.setPaymentIntentClientSecret(paymentIntent.getClientSecret());
-        } catch (StripeException e) {
-            throw new RuntimeException("Nie można utworzyć transakcji płatności", e);
+        // The payment is created after the order commits, in asynchronous mode the client polls for the secret
+        order.setPaymentStatus(PaymentStatus.PENDING_PAYMENT);
+        Order savedOrder = orderRepository.save(order);
+        mealSalesService.recordSale(savedOrder.getMealIds());
+        orderRollupService.recordOrder(savedOrder);
+        if (paymentService.isAsync()) {
+            paymentService.createClientSecretAsync(savedOrder.getId(), totalAmount(savedOrder));
         }
+        return savedOrder;
+    }
+
+    // Total amount in the smallest currency unit (e.g., cents)
+    private static long totalAmount(Order order) {
+        return (long) ((order.getOrderPrice() + order.getDeliveryPrice()) * 100);
+    }
 
-        // Save the Order with all details including the client secret
-        return orderRepository.save(order);
+    public OrderPaymentResponseDTO getOrderPayment(Long id) {
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_ORDER));
+        return new OrderPaymentResponseDTO(order.getId(), order.getPaymentStatus(), order.getPaymentIntentClientSecret());
     }
 
+    @Transactional
     public Order updateOrder(Long id, OrderAddCommand orderAddCommand) {
         customerService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(orderAddCommand.getCustomerId());
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_ORDER));
 
-        validateOrderAddCommand(orderAddCommand);
-        double newOrderPrice = calculateOrderPrice(orderAddCommand.getMealIds(), orderAddCommand.getCouponCode(), orderAddCommand.getCustomerId());
+        final var meals = validateOrderAddCommand(orderAddCommand);
+        double newOrderPrice = calculateOrderPrice(orderAddCommand.getMealIds(), meals, orderAddCommand.getCouponCode(), orderAddCommand.getCustomerId());
         double newDeliveryPrice = countDeliveryPrice(orderAddCommand.getDeliveryDistance());
 
+        mealSalesService.revertSale(existingOrder.getMealIds());
+        mealSalesService.recordSale(orderAddCommand.getMealIds());
+        orderRollupService.revertOrder(existingOrder);
+
         existingOrder.setMealIds(orderAddCommand.getMealIds());
         existingOrder.setCustomerId(orderAddCommand.getCustomerId());
         existingOrder.setType(orderAddCommand.getType());
@@ -133,17 +195,22 @@ public class OrderService {
         existingOrder.setOrderPrice(newOrderPrice);
         existingOrder.setDeliveryPrice(newDeliveryPrice);
 
-        return orderRepository.save(existingOrder);
+        Order savedOrder = orderRepository.save(existingOrder);
+        orderRollupService.recordOrder(savedOrder);
+        return savedOrder;
     }
 
+    @Transactional
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new NotFoundException(NOT_FOUND_ORDER);
-        }
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_ORDER));
+        mealSalesService.revertSale(order.getMealIds());
+        orderRollupService.revertOrder(order);
         orderRepository.deleteById(id);
     }
 
-    private void validateOrderAddCommand(OrderAddCommand orderAddCommand) {
+    // Returns the referenced meals by id, so that pricing does not have to look them up again
+    private Map<Long, MenuCatalogService.CatalogEntry> validateOrderAddCommand(OrderAddCommand orderAddCommand) {
         // Validate the list of mealId and quantity pairs
         final var mealIds = orderAddCommand.getMealIds();
         if (mealIds == null || mealIds.isEmpty()) {
@@ -184,6 +251,12 @@ public class OrderService {
             throw new IllegalArgumentException("Adres dostawy może być podany tylko dla zamówienia typu DOSTAWA");
         }
 
+        // Resolve all referenced meals at once
+        final var meals = mealService.getMealsByIds(mealIds.stream()
+                .map(MealQuantity::getMealId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
         for (final MealQuantity mealQuantity : mealIds) {
             // getMealID provides integer, cast it to Long
             final var mealId = mealQuantity.getMealId();
@@ -194,7 +267,7 @@ public class OrderService {
             }
 
             // Validate mealId
-            if (!mealService.mealExists(mealId)) {
+            if (!meals.containsKey(mealId)) {
                 throw new NotFoundException("Posiłek o identyfikatorze " + mealId + " nie istnieje");
             }
 
@@ -216,15 +289,15 @@ public class OrderService {
                 // unwantedIngredients)
                 // and check if given meal consists of unwanted ingredients
                 final var mealQuantity = mealIds.get(mealIndex);
-                final var meal = mealService.getMealById(mealQuantity.getMealId());
 
                 // check if all ingredients are present in the meal
-                if (!new HashSet<>(meal.getIngredients()).containsAll(ingredients)) {
+                if (!meals.get(mealQuantity.getMealId()).ingredients().containsAll(ingredients)) {
                     throw new IllegalArgumentException("Posiłek o indeksie " + mealIndex
                             + " nie zawiera wszystkich podanych składników, które chcesz usunąć");
                 }
             }
         }
+        return meals;
     }
 
     private List<String> getIngredients(UnwantedIngredient unwantedIngredient, int mealIndex, List<MealQuantity> mealIds) {
@@ -243,12 +316,13 @@ public class OrderService {
         return ingredients;
     }
 
-    private double calculateOrderPrice(List<MealQuantity> mealQuantities, String couponCode, Long customerId) {
+    private double calculateOrderPrice(List<MealQuantity> mealQuantities, Map<Long, MenuCatalogService.CatalogEntry> meals,
+                                       String couponCode, Long customerId) {
         return mealQuantities.stream()
                 .mapToDouble(mealQuantity -> {
                     Long mealId = mealQuantity.getMealId();
                     int quantity = mealQuantity.getQuantity();
-                    Meal meal = mealService.getMealById(mealId);
+                    Meal meal = meals.get(mealId).meal();
                     if (couponCode == null) {
                         return meal.getPrice() * quantity;
                     }
@@ -259,25 +333,34 @@ public class OrderService {
     }
 
     private double countDeliveryPrice(double deliveryDistance) {
-        double deliveryPrice = 0;
-        if (deliveryDistance > 0) {
-            final var deliveryPrices = configService.getDeliveryPrices();
-            // Sort delivery prices by maximum range
-            deliveryPrices.sort(Comparator.comparingInt(DeliveryPricing::getMaximumRange));
-            for (var deliveryPriceEntry : deliveryPrices) {
-                final var maxRange = deliveryPriceEntry.getMaximumRange();
-                if (maxRange >= deliveryDistance) {
-                    deliveryPrice = deliveryPriceEntry.getPrice();
-                    break;
-                }
-            }
+        if (deliveryDistance <= 0) {
+            return 0;
         }
-        if (deliveryPrice == 0 && deliveryDistance > 0) {
+        double deliveryPrice = configService.getSnapshot().findDeliveryPrice(deliveryDistance);
+        if (Double.isNaN(deliveryPrice)) {
             throw new IllegalArgumentException("Nie znaleziono ceny dostawy dla odległości: " + deliveryDistance);
         }
         return deliveryPrice;
     }
 
+    public List<OrdersByDayHour> getOrdersByDayAndHour(LocalDateTime from, LocalDateTime to, Collection<OrderType> types) {
+        return orderRepository.countOrdersByDayAndHour(from, to, toOrdinals(types));
+    }
+
+    public List<EarningsByYearMonth> getEarningsByYearMonth(LocalDateTime from, LocalDateTime to, Collection<OrderType> types) {
+        return orderRepository.sumEarningsByYearMonth(from, to, toOrdinals(types));
+    }
+
+    public Map<Long, Long> getMealQuantitiesSold(LocalDateTime from, LocalDateTime to, Collection<OrderType> types) {
+        return orderRepository.sumMealQuantities(from, to, toOrdinals(types)).stream()
+                .collect(Collectors.toMap(MealQuantitySold::getMealId, MealQuantitySold::getQuantity));
+    }
+
+    // Order type is persisted as its ordinal, native statistics queries compare against that
+    private List<Integer> toOrdinals(Collection<OrderType> types) {
+        return types.stream().map(OrderType::ordinal).toList();
+    }
+
     public Order addOrderToReservation(Long orderId, Long reservationId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Nie znaleziono zamówienia"));
@@ -0,0 +1,14 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
+
+public interface PaymentGateway {
+
+    /**
+     * Creates a payment for the given amount and returns the client secret used by the frontend to confirm it.
+     * Calls repeated with the same non null idempotency key must not create a second payment.
+     *
+     * @throws PaymentGatewayException when the payment could not be created
+     */
+    String createPaymentIntent(long amount, String currency, String idempotencyKey);
+}
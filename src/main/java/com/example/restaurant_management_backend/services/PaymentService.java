@@ -0,0 +1,144 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
+import com.example.restaurant_management_backend.jpa.model.PaymentStatus;
+import com.example.restaurant_management_backend.jpa.repositories.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates payments for orders. In asynchronous mode (payments.async=true) the order is saved as PENDING_PAYMENT
+ * and the payment is created on a bounded pool after the order commits, the client polls for the client secret.
+ */
+@Service
+public class PaymentService {
+
+    public static final String CURRENCY = "pln";
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean async;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final ThreadPoolExecutor executor;
+
+    public PaymentService(PaymentGateway paymentGateway, OrderRepository orderRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${payments.async:false}") boolean async,
+                          @Value("${payments.async.threads:4}") int threads,
+                          @Value("${payments.async.queue-capacity:500}") int queueCapacity,
+                          @Value("${payments.async.max-attempts:4}") int maxAttempts,
+                          @Value("${payments.async.initial-backoff-millis:200}") long initialBackoffMillis) {
+        this.paymentGateway = paymentGateway;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.async = async;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    // Synchronous mode, a single attempt made on the request thread once the order is committed
+    public String createClientSecret(Long orderId, long amount) {
+        try {
+            String clientSecret = paymentGateway.createPaymentIntent(amount, CURRENCY, "order-" + orderId);
+            updateOrder(orderId, PaymentStatus.CREATED, clientSecret);
+            return clientSecret;
+        } catch (PaymentGatewayException e) {
+            logger.error("Creating payment for order {} failed", orderId, e);
+            updateOrder(orderId, PaymentStatus.FAILED, null);
+            throw e;
+        }
+    }
+
+    // Submits the payment once the surrounding transaction commits, so the worker always finds the order
+    public void createClientSecretAsync(Long orderId, long amount) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(orderId, amount);
+                }
+            });
+        } else {
+            submit(orderId, amount);
+        }
+    }
+
+    private void submit(Long orderId, long amount) {
+        try {
+            executor.execute(() -> createWithRetries(orderId, amount));
+        } catch (RejectedExecutionException e) {
+            // Queue is full, fail fast instead of blocking the request thread
+            logger.warn("Payment queue is full, payment for order {} was not created", orderId);
+            updateOrder(orderId, PaymentStatus.FAILED, null);
+        }
+    }
+
+    private void createWithRetries(Long orderId, long amount) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                // The same key on every attempt, so a retry after a timeout does not create a second payment
+                String clientSecret = paymentGateway.createPaymentIntent(amount, CURRENCY, "order-" + orderId);
+                updateOrder(orderId, PaymentStatus.CREATED, clientSecret);
+                return;
+            } catch (PaymentGatewayException e) {
+                if (!e.isRetryable() || attempt == maxAttempts) {
+                    logger.error("Creating payment for order {} failed after {} attempts", orderId, attempt, e);
+                    break;
+                }
+                logger.warn("Creating payment for order {} failed, attempt {} of {}", orderId, attempt, maxAttempts);
+            } catch (RuntimeException e) {
+                logger.error("Creating payment for order {} failed", orderId, e);
+                break;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoff *= 2;
+        }
+        updateOrder(orderId, PaymentStatus.FAILED, null);
+    }
+
+    private void updateOrder(Long orderId, PaymentStatus paymentStatus, String clientSecret) {
+        transactionTemplate.executeWithoutResult(status -> orderRepository.findById(orderId).ifPresent(order -> {
+            order.setPaymentStatus(paymentStatus);
+            order.setPaymentIntentClientSecret(clientSecret);
+            orderRepository.save(order);
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
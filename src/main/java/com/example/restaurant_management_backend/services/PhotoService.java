@@ -1,48 +1,404 @@
 package com.example.restaurant_management_backend.services;
 
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.w3c.dom.NodeList;
 
-import java.io.File;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Stores uploaded photos and creates resized copies of them (thumb, card, full) on a small background pool, so menu
+ * pages do not download camera originals. Copies are JPEG, or PNG for images with transparency, turned upright by the
+ * EXIF orientation and only kept when smaller than the original. Until they exist, for files that are not images and
+ * for images over photos.variants.max-pixels, the original is served. Only raster image types are served as such,
+ * any other file is sent as application/octet-stream so a browser never renders uploaded HTML or SVG.
+ */
 @Service
 public class PhotoService {
-    private static final String UPLOAD_DIR = "uploads/";
+    private static final Logger logger = LoggerFactory.getLogger(PhotoService.class);
     public static final String FILENAME_NOT_PRESENT = "Nie podano pliku";
     public static final String DIR_NOT_CREATED_FOR_FILES = "Nie udało się utworzyć katalogu na pliki";
     public static final String NOT_FOUND_FILE_WITH_NAME = "Nie znaleziono pliku o nazwie ";
+    public static final String INVALID_FILENAME = "Nieprawidłowa nazwa pliku: ";
+    public static final String UNKNOWN_PHOTO_SIZE = "Nieznany rozmiar zdjęcia: ";
+    private static final String VARIANTS_DIR = "variants";
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int EXIF_APP1 = 0xE1;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+    private static final Set<MediaType> SERVED_TYPES = Set.of(MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG,
+            MediaType.IMAGE_GIF, MediaType.parseMediaType("image/webp"));
 
+    // Longest side in pixels
+    public enum PhotoSize {
+        THUMB(160), CARD(480), FULL(1600);
+
+        private final int maxDimension;
+
+        PhotoSize(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        // Null for the original, when no size or "original" is given
+        public static PhotoSize of(String size) {
+            if (size == null || size.isBlank() || size.equalsIgnoreCase("original")) {
+                return null;
+            }
+            for (PhotoSize photoSize : values()) {
+                if (photoSize.name().equalsIgnoreCase(size.trim())) {
+                    return photoSize;
+                }
+            }
+            throw new IllegalArgumentException(UNKNOWN_PHOTO_SIZE + size);
+        }
+    }
+
+    public record StoredPhoto(Resource resource, MediaType mediaType) {
+    }
+
+    private final Path uploadDir;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    public PhotoService(@Value("${photos.upload-dir:uploads/}") String uploadDir,
+                        @Value("${photos.variants.threads:2}") int threads,
+                        @Value("${photos.variants.queue-capacity:100}") int queueCapacity,
+                        @Value("${photos.variants.max-pixels:50000000}") long maxPixels) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Returns as soon as the original is stored, resized copies follow in the background
     public String uploadPhoto(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new NotFoundException(FILENAME_NOT_PRESENT);
         }
+        String originalFilename = file.getOriginalFilename();
+        String filename = originalFilename == null ? null
+                : StringUtils.getFilename(StringUtils.cleanPath(originalFilename));
+        Path original = resolve(filename);
+
+        try {
+            Files.createDirectories(uploadDir);
+        } catch (IOException e) {
+            throw new IOException(DIR_NOT_CREATED_FOR_FILES, e);
+        }
+        file.transferTo(original);
 
-        String uploadDirPath = new File(UPLOAD_DIR).getAbsolutePath();
-        File uploadDir = new File(uploadDirPath);
-        if (!uploadDir.exists() && !uploadDir.mkdirs()) {
-            throw new IOException(DIR_NOT_CREATED_FOR_FILES);
+        // Copies of an earlier upload under the same name must not be served for the new photo
+        for (PhotoSize size : PhotoSize.values()) {
+            deleteVariants(filename, size);
         }
+        FileTime uploadedAt = Files.getLastModifiedTime(original);
+        try {
+            executor.execute(() -> createVariants(filename, uploadedAt));
+        } catch (RejectedExecutionException e) {
+            // Queue is full, the original is served until the photo is uploaded again
+            logger.warn("Photo queue is full, no resized copies of {} will be created", filename);
+        }
+        return filename;
+    }
+
+    // Without a size, or while the resized copy is not there yet, the original is returned
+    public StoredPhoto downloadPhoto(String filename, PhotoSize size) {
+        Path original = resolve(filename);
+        if (size != null) {
+            for (String extension : new String[]{"jpg", "png"}) {
+                Path variant = variantPath(filename, size, extension);
+                if (Files.isRegularFile(variant)) {
+                    return stored(variant);
+                }
+            }
+        }
+        if (!Files.isRegularFile(original)) {
+            throw new NotFoundException(NOT_FOUND_FILE_WITH_NAME + filename);
+        }
+        return stored(original);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Path resolve(String filename) {
+        Path path = filename == null || filename.isBlank() ? null : uploadDir.resolve(filename).normalize();
+        // Only plain names inside the upload directory, the copies directory is not a photo
+        if (path == null || !uploadDir.equals(path.getParent()) || filename.equals(VARIANTS_DIR)) {
+            throw new IllegalArgumentException(INVALID_FILENAME + filename);
+        }
+        return path;
+    }
 
-        String filePath = uploadDirPath + File.separator + file.getOriginalFilename();
-        file.transferTo(new File(filePath));
+    private Path variantPath(String filename, PhotoSize size, String extension) {
+        return uploadDir.resolve(VARIANTS_DIR).resolve(size.name().toLowerCase(Locale.ROOT))
+                .resolve(filename + "." + extension);
+    }
 
-        return file.getOriginalFilename();
+    private static StoredPhoto stored(Path path) {
+        Resource resource = new FileSystemResource(path);
+        MediaType mediaType = MediaTypeFactory.getMediaType(resource)
+                .filter(SERVED_TYPES::contains)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new StoredPhoto(resource, mediaType);
     }
 
-    public Resource downloadPhoto(String filename) throws IOException {
-        Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
-        Resource resource = new UrlResource(filePath.toUri());
+    private void deleteVariants(String filename, PhotoSize size) throws IOException {
+        Files.deleteIfExists(variantPath(filename, size, "jpg"));
+        Files.deleteIfExists(variantPath(filename, size, "png"));
+    }
 
-        if (!resource.exists()) {
-            throw new NotFoundException(NOT_FOUND_FILE_WITH_NAME + filename);
+    private void createVariants(String filename, FileTime uploadedAt) {
+        long start = System.nanoTime();
+        Path original = uploadDir.resolve(filename);
+        try {
+            BufferedImage image = read(original, filename);
+            if (image == null) {
+                return;
+            }
+            long originalSize = Files.size(original);
+            boolean transparent = image.getColorModel().hasAlpha();
+            // Largest first, every size is scaled down from the previous one
+            BufferedImage source = image;
+            PhotoSize[] sizes = PhotoSize.values();
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                source = scale(source, sizes[i].getMaxDimension(), transparent);
+                byte[] encoded = transparent ? encodePng(source) : encodeJpeg(source);
+                if (!Files.getLastModifiedTime(original).equals(uploadedAt)) {
+                    return; // uploaded again meanwhile, the newer upload creates its own copies
+                }
+                if (encoded.length < originalSize) {
+                    write(variantPath(filename, sizes[i], transparent ? "png" : "jpg"), encoded);
+                }
+            }
+            logger.debug("Resized copies of {} created in {} ms", filename,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not create resized copies of {}, it is served as uploaded", filename, e);
         }
+    }
 
-        return resource;
+    // Null for files that are not images and for images too large to decode, the size is checked before decoding
+    private BufferedImage read(Path original, String filename) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                logger.info("{} is not a readable image, it is served as uploaded", filename);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.info("{} has {} pixels, more than {}, it is served as uploaded", filename, pixels,
+                            maxPixels);
+                    return null;
+                }
+                BufferedImage image = reader.read(0);
+                return orient(image, exifOrientation(reader));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF orientation from the APP1 segment of a JPEG, 1 (upright) when there is none or it cannot be read
+    private static int exifOrientation(ImageReader reader) {
+        IIOMetadata metadata;
+        try {
+            metadata = reader.getImageMetadata(0);
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+        if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT);
+        NodeList segments = root.getElementsByTagName("unknown");
+        for (int i = 0; i < segments.getLength(); i++) {
+            IIOMetadataNode segment = (IIOMetadataNode) segments.item(i);
+            if (Integer.toString(EXIF_APP1).equals(segment.getAttribute("MarkerTag"))
+                    && segment.getUserObject() instanceof byte[] data) {
+                int orientation = exifOrientation(data);
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Looks the orientation tag up in the first IFD of the TIFF structure that follows "Exif\0\0", 0 when missing
+    private static int exifOrientation(byte[] app1) {
+        if (app1.length < EXIF_HEADER.length + 8
+                || !Arrays.equals(app1, 0, EXIF_HEADER.length, EXIF_HEADER, 0, EXIF_HEADER.length)) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, EXIF_HEADER.length, app1.length - EXIF_HEADER.length).slice();
+        try {
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int directory = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(directory));
+            for (int i = 0; i < entries; i++) {
+                int entry = directory + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                    int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                    return orientation >= 1 && orientation <= 8 ? orientation : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Truncated or malformed EXIF, treated as missing
+        }
+        return 0;
+    }
+
+    // Mirrors and rotates the image the way orientations 2 to 8 ask viewers to, so copies without EXIF stay upright
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            default -> new AffineTransform(0, -1, 1, 0, 0, width);
+        };
+        boolean transposed = orientation >= 5;
+        boolean transparent = image.getColorModel().hasAlpha();
+        BufferedImage oriented = new BufferedImage(transposed ? height : width, transposed ? width : height,
+                imageType(transparent));
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    // Halves the image while it stays at least twice the target, which keeps bilinear scaling sharp and cheap
+    private static BufferedImage scale(BufferedImage image, int maxDimension, boolean transparent) {
+        double factor = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, transparent);
+        }
+        if (current.getWidth() != width || current.getHeight() != height
+                || current.getType() != imageType(transparent)) {
+            current = draw(current, width, height, transparent);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, boolean transparent) {
+        BufferedImage scaled = new BufferedImage(width, height, imageType(transparent));
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static int imageType(boolean transparent) {
+        return transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(encoded)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return encoded.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", encoded);
+        return encoded.toByteArray();
+    }
+
+    // Written next to the target and moved into place, so downloads never see a half written copy
+    private static void write(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, data);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
     }
 }
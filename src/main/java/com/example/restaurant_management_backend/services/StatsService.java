@@ -2,16 +2,24 @@ package com.example.restaurant_management_backend.services;
 
 import com.example.restaurant_management_backend.exceptions.NoDataException;
 import com.example.restaurant_management_backend.jpa.model.Meal;
-import com.example.restaurant_management_backend.jpa.model.MealQuantity;
-import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.repositories.projections.EarningsByYearMonth;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealRatingSummary;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
 
 @Service
 @RequiredArgsConstructor
@@ -21,11 +29,24 @@ public class StatsService {
 
     private final OrderService orderService;
 
+    private final OrderRollupService orderRollupService;
+
     private final OpinionService opinionService;
 
+    private final MealSalesService mealSalesService;
+
     private static final String NO_ORDERS_FOUND = "Nie znaleziono żadnych zamówień";
 
+    private static final LocalDateTime EARLIEST_ORDER_TIME = LocalDate.of(1970, 1, 1).atStartOfDay();
+
+    private static final LocalDateTime LATEST_ORDER_TIME = LocalDate.of(9999, 12, 31).atStartOfDay();
+
     public LinkedHashMap<String, Integer> getNMostPopularMeals(String mostLeast, int n) {
+        return getNMostPopularMeals(mostLeast, n, null, null, null);
+    }
+
+    public LinkedHashMap<String, Integer> getNMostPopularMeals(String mostLeast, int n, LocalDate from, LocalDate to,
+                                                               OrderType type) {
 
         if (!mostLeast.equals("most") && !mostLeast.equals("least")) {
             throw new IllegalArgumentException("mostLeast musi mieć wartość 'most' or 'least'");
@@ -35,114 +56,90 @@ public class StatsService {
             throw new IllegalArgumentException("n musi być większe od 0");
         }
 
-        if (n > mealService.getAllMeals().size()) {
+        List<Meal> meals = mealService.getAllMeals();
+        if (n > meals.size()) {
             throw new IllegalArgumentException("n musi być mniejsze lub równe liczbie wszystkich posiłków");
         }
 
-        // get all orders from the database
-        List<Order> orders = orderService.getOrders();
+        validateWindow(from, to);
 
-        if (orders.isEmpty()) {
+        // Counters are maintained by OrderService on every order write, so no order has to be loaded here.
+        // A filtered request is summed up by the database over the requested window only
+        final var quantitiesSold = isUnfiltered(from, to, type)
+                ? mealSalesService.getQuantitiesSold()
+                : orderService.getMealQuantitiesSold(windowStart(from), windowEnd(to), typesOf(type));
+        if (quantitiesSold.values().stream().allMatch(quantity -> quantity == 0)) {
             throw new NoDataException(NO_ORDERS_FOUND);
         }
 
-        // iterate through list of orders and get all meals mentioned in mealIds list
-        // (along with their quantity)
-        // sum up the quantities of each meal
-        // sort the list of meals by their total quantity
-        // return the first n meals from the list
-
-        // Create a dictionary to store the quantity of each meal
-        // Iterate through the list of orders
-
-        final var result = new HashMap<String, Integer>();
-        // Create key for every meal so that we can show meals with 0 quantity
-        for (var meal : mealService.getAllMeals()) {
-            final var mealName = meal.getName();
-            result.put(mealName, 0);
-        }
-        for (Order order : orders) {
-            final var mealIds = order.getMealIds();
-            for (MealQuantity mealQuantity1 : mealIds) {
-                final var mealId = mealQuantity1.getMealId();
-                final var mealName = mealService.getMealById(mealId).getName();
-                final var quantity = mealQuantity1.getQuantity();
-                result.put(mealName, result.get(mealName) + quantity);
-            }
+        // Every meal is a candidate, so meals with 0 quantity can be shown as well.
+        // Results are keyed by name, meals sharing a name are counted together
+        final var candidates = new HashMap<String, Integer>();
+        for (Meal meal : meals) {
+            final var quantity = quantitiesSold.getOrDefault(meal.getId(), 0L);
+            candidates.merge(meal.getName(), Math.toIntExact(quantity), Integer::sum);
         }
 
-        // Sort the map by values (either ascending or descending) and collect the first
-        // `n` results
-
-        return result.entrySet().stream()
-                .sorted((mostLeast.equals("most"))
-                        ? Map.Entry.<String, Integer>comparingByValue().reversed() // For "most", sort descending
-                        : Map.Entry.comparingByValue()) // For "least", sort ascending
-                .limit(n)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1, // Merge function, not needed but required by toMap
-                        LinkedHashMap::new // Ensure insertion order is maintained
-                ));
+        Comparator<Map.Entry<String, Integer>> order = mostLeast.equals("most")
+                ? Map.Entry.<String, Integer>comparingByValue().reversed() // For "most", sort descending
+                : Map.Entry.comparingByValue(); // For "least", sort ascending
+        return selectTopN(candidates, n, order);
     }
 
     public HashMap<String, Integer> getAmountOfOrdersByDayAndHour() {
-        // get all orders from the database
-        List<Order> orders = orderService.getOrders();
+        return getAmountOfOrdersByDayAndHour(null, null, null);
+    }
+
+    public HashMap<String, Integer> getAmountOfOrdersByDayAndHour(LocalDate from, LocalDate to, OrderType type) {
+        validateWindow(from, to);
 
-        if (orders.isEmpty()) {
+        // buckets are summed up in the database, so the cost does not depend on the number of orders
+        List<OrdersByDayHour> buckets = isUnfiltered(from, to, type)
+                ? orderRollupService.getOrdersByDayAndHour()
+                : orderService.getOrdersByDayAndHour(windowStart(from), windowEnd(to), typesOf(type));
+
+        if (buckets.isEmpty()) {
             throw new NoDataException(NO_ORDERS_FOUND);
         }
 
         // Create a dictionary to store the amount of orders by day and hour
         HashMap<String, Integer> ordersByDayAndHour = new HashMap<>();
 
-        for (Order order : orders) {
-            final var orderDateTime = order.getDateTime();
-            final var day = intDayToString(orderDateTime.getDayOfWeek().getValue());
-            final var hour = orderDateTime.getHour();
-
-            final var key = day + " " + hour + ":00";
-
-            // if key does not exist, add it to the dictionary
-            if (!ordersByDayAndHour.containsKey(key)) {
-                ordersByDayAndHour.put(key, 1);
-            } else {
-                // if key exists, increment the value by 1
-                ordersByDayAndHour.put(key, ordersByDayAndHour.get(key) + 1);
-            }
-
+        for (OrdersByDayHour bucket : buckets) {
+            final var day = intDayToString(bucket.getDay());
+            final var key = day + " " + bucket.getHour() + ":00";
+            ordersByDayAndHour.put(key, Math.toIntExact(bucket.getOrders()));
         }
 
         return ordersByDayAndHour;
     }
 
     public HashMap<String, Double> getEarningsByYearMonth() {
-        // get all orders from the database
-        List<Order> orders = orderService.getOrders();
+        return getEarningsByYearMonth(null, null, null);
+    }
 
-        // if orders are empty, throw IllegalState exception
-        if (orders.isEmpty()) {
+    public HashMap<String, Double> getEarningsByYearMonth(LocalDate from, LocalDate to, OrderType type) {
+        validateWindow(from, to);
+
+        List<EarningsByYearMonth> buckets = isUnfiltered(from, to, type)
+                ? orderRollupService.getEarningsByYearMonth()
+                : orderService.getEarningsByYearMonth(windowStart(from), windowEnd(to), typesOf(type));
+
+        // if there are no orders, throw NoData exception
+        if (buckets.isEmpty()) {
             throw new NoDataException(NO_ORDERS_FOUND);
         }
 
         // Create a dictionary to store the earnings by year and month
         HashMap<String, Double> earningsByYearMonth = new HashMap<>();
 
-        for (Order order : orders) {
-            final var orderDateTime = order.getDateTime();
-            final var year = orderDateTime.getYear();
-            final var month = orderDateTime.getMonth().toString();
+        for (EarningsByYearMonth bucket : buckets) {
+            final var month = Month.of(bucket.getMonth()).toString();
 
             // Use a single string as the key in "Year-Month" format to simplify key
             // handling
-            final var key = year + "-" + engMonthToPolMonth(month);
-
-            var price = order.getOrderPrice(); // Assuming there's a getPrice method in the Order class
-
-            // Increment the total price for the year-month key
-            earningsByYearMonth.put(key, earningsByYearMonth.getOrDefault(key, 0.0) + price);
+            final var key = bucket.getYear() + "-" + engMonthToPolMonth(month);
+            earningsByYearMonth.put(key, bucket.getEarnings());
         }
 
         return earningsByYearMonth;
@@ -157,53 +154,69 @@ public class StatsService {
             throw new IllegalArgumentException("n musi być większe od 0");
         }
 
-        if (n > mealService.getAllMeals().size()) {
+        final var mealCount = mealService.countMeals();
+        if (n > mealCount) {
             throw new IllegalArgumentException("n musi być mniejsze lub równe liczbie wszystkich posiłków");
         }
 
-        // get all meals from the database
+        // Averages are computed by a single grouped query, meals without opinions are not part of it
+        final var candidates = new HashMap<String, Double>();
+        for (MealRatingSummary summary : opinionService.getRatingSummaries()) {
+            candidates.put(summary.getMealName(), summary.getAverageRating());
+        }
 
-        List<Meal> meals = mealService.getAllMeals();
+        Comparator<Map.Entry<String, Double>> order = mostLeast.equals("best")
+                ? Map.Entry.<String, Double>comparingByValue().reversed() // Sort descending for "best"
+                : Map.Entry.comparingByValue(); // Sort ascending for "worst"
+        return selectTopN(candidates, n, order);
+    }
+
+    private static boolean isUnfiltered(LocalDate from, LocalDate to, OrderType type) {
+        return from == null && to == null && type == null;
+    }
 
-        if (meals.isEmpty()) {
-            throw new NoDataException("Nie znaleziono żadnych posiłków");
+    private static void validateWindow(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Data początkowa nie może być późniejsza niż data końcowa");
         }
+    }
 
-        // for every meal in meals use getOpinionsForMeal to count the average rating
-        // for each meal
-        // sort the list of meals by their average rating
-        // return the first n meals from the list
+    // Both ends of the window are inclusive days, the queries use a half-open [start, end) range
+    private static LocalDateTime windowStart(LocalDate from) {
+        return from == null ? EARLIEST_ORDER_TIME : from.atStartOfDay();
+    }
 
-        // Create a dictionary to store the average rating of each meal
-        final var result = new HashMap<String, Double>();
+    private static LocalDateTime windowEnd(LocalDate to) {
+        return to == null ? LATEST_ORDER_TIME : to.plusDays(1).atStartOfDay();
+    }
 
-        for (Meal meal : meals) {
-            final var mealId = meal.getId();
-            final var mealName = meal.getName();
-            final var opinions = opinionService.getOpinionsForMeal(mealId);
-            if (!opinions.isEmpty()) {
-                double average = 0;
-                for (var opinion : opinions) {
-                    average += opinion.rating();
-                }
-                average /= opinions.size();
-                result.put(mealName, average);
+    private static List<OrderType> typesOf(OrderType type) {
+        return type == null ? List.of(OrderType.values()) : List.of(type);
+    }
+
+    // Keeps only the n best entries in a bounded heap whose head is the worst kept entry,
+    // which is O(m log n) instead of sorting all m candidates. Keys are unique, so exactly min(n, m) are returned
+    private static <V> LinkedHashMap<String, V> selectTopN(Map<String, V> candidates, int n,
+                                                           Comparator<Map.Entry<String, V>> order) {
+        final var heap = new PriorityQueue<Map.Entry<String, V>>(n + 1, order.reversed());
+        for (var candidate : candidates.entrySet()) {
+            heap.offer(candidate);
+            if (heap.size() > n) {
+                heap.poll();
             }
         }
 
-        // Sort the map by values (either ascending or descending) and collect the first
+        final var selected = new ArrayList<Map.Entry<String, V>>(heap.size());
+        while (!heap.isEmpty()) {
+            selected.add(heap.poll());
+        }
+        Collections.reverse(selected);
 
-        return result.entrySet().stream()
-        .sorted((mostLeast.equals("best"))
-                ? Map.Entry.<String, Double>comparingByValue().reversed()  // Sort descending for "best"
-                : Map.Entry.comparingByValue())  // Sort ascending for "worst"
-        .limit(n)
-        .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                Map.Entry::getValue,
-                (e1, e2) -> e1,  // Merge function, not needed but required
-                LinkedHashMap::new  // Ensure insertion order is maintained
-        ));
+        final var result = new LinkedHashMap<String, V>();
+        for (var entry : selected) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
     }
 
     private String intDayToString(int day) {
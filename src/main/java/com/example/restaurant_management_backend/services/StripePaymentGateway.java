@@ -0,0 +1,39 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "payments.gateway", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway implements PaymentGateway {
+
+    @Override
+    public String createPaymentIntent(long amount, String currency, String idempotencyKey) {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amount)
+                .setCurrency(currency)
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder().setEnabled(true).build())
+                .build();
+        RequestOptions.RequestOptionsBuilder options = RequestOptions.builder();
+        if (idempotencyKey != null) {
+            options.setIdempotencyKey(idempotencyKey);
+        }
+
+        try {
+            return PaymentIntent.create(params, options.build()).getClientSecret();
+        } catch (ApiConnectionException | RateLimitException | ApiException e) {
+            throw new PaymentGatewayException("Nie można utworzyć transakcji płatności", true, e);
+        } catch (StripeException e) {
+            throw new PaymentGatewayException("Nie można utworzyć transakcji płatności", false, e);
+        }
+    }
+}
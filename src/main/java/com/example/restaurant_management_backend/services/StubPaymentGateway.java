@@ -0,0 +1,34 @@
+package com.example.restaurant_management_backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Offline replacement for Stripe, meant for local development and load tests. Enabled with payments.gateway=stub.
+ */
+@Service
+@ConditionalOnProperty(name = "payments.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final long latencyMillis;
+
+    public StubPaymentGateway(@Value("${payments.stub.latency-millis:0}") long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String createPaymentIntent(long amount, String currency, String idempotencyKey) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String id = idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
+        return "pi_stub_" + id + "_secret_" + amount;
+    }
+}
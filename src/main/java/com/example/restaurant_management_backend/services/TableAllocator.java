@@ -0,0 +1,44 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Table;
+
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Best fit choice of a table for a new reservation. Every free table gets a penalty in minutes: idle seats cost
+ * MINUTES_PER_IDLE_SEAT each, and a gap left before or after the reservation that is too short for another booking
+ * costs its length. Reservations placed right next to existing ones or far from them are not penalised, so the
+ * evening stays packed and large tables stay free for large parties.
+ */
+final class TableAllocator {
+
+    static final int MIN_USEFUL_GAP_MINUTES = 120;
+    static final int MINUTES_PER_IDLE_SEAT = 30;
+
+    private TableAllocator() {
+    }
+
+    // Ties go to the smaller table, then to the table listed first
+    static Optional<Table> bestFit(TableOccupancy occupancy, List<Table> freeTables, int numberOfPeople,
+                                   LocalTime startTime, LocalTime endTime) {
+        int start = TableOccupancy.minuteOfDay(startTime);
+        int end = TableOccupancy.endMinute(start, endTime);
+        return freeTables.stream()
+                .min(Comparator.<Table>comparingLong(table -> penalty(occupancy, table, numberOfPeople, start, end))
+                        .thenComparingInt(Table::getCapacity));
+    }
+
+    static long penalty(TableOccupancy occupancy, Table table, int numberOfPeople, int start, int end) {
+        long idleSeats = Math.max(0, table.getCapacity() - numberOfPeople);
+        return idleSeats * MINUTES_PER_IDLE_SEAT
+                + deadGap(occupancy.freeMinutesBefore(table.getId(), start))
+                + deadGap(occupancy.freeMinutesAfter(table.getId(), end));
+    }
+
+    private static int deadGap(int gap) {
+        return gap > 0 && gap < MIN_USEFUL_GAP_MINUTES ? gap : 0;
+    }
+}
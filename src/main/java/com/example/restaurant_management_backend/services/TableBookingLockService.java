@@ -0,0 +1,121 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
+import com.example.restaurant_management_backend.jpa.repositories.TableReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes bookings per (table, day). Striped locks order bookings within this instance, Postgres transaction
+ * level advisory locks order them across instances. Both are held until the booking transaction, or the caller's
+ * transaction it joined, completes. Waiting for all of them together is bounded by reservations.lock-timeout-millis,
+ * after which the booking fails with a conflict. Locks are always taken in ascending order, so bookings locking
+ * several tables cannot deadlock.
+ */
+@Service
+public class TableBookingLockService {
+
+    public static final String BOOKING_IN_PROGRESS = "Trwa inna rezerwacja tego stolika, spróbuj ponownie";
+    private static final int STRIPES = 256;
+    private static final long MAX_DATABASE_RETRY_PAUSE_MILLIS = 50;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final TableReservationRepository tableReservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean databaseLocks;
+    private final long lockTimeoutMillis;
+
+    public TableBookingLockService(TableReservationRepository tableReservationRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${reservations.database-locks:true}") boolean databaseLocks,
+                                   @Value("${reservations.lock-timeout-millis:5000}") long lockTimeoutMillis) {
+        this.tableReservationRepository = tableReservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseLocks = databaseLocks;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the booking while holding the locks of all given tables on the given day. The action runs in a
+     * transaction, joining the caller's one if present.
+     */
+    public <T> T withTableLocks(LocalDate day, Collection<String> tableIds, Supplier<T> action) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        TreeSet<Integer> databaseKeys = new TreeSet<>();
+        for (String tableId : tableIds) {
+            stripes.add(Math.floorMod(31 * tableId.hashCode() + day.hashCode(), STRIPES));
+            databaseKeys.add(tableId.hashCode());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
+        List<ReentrantLock> acquired = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = locks[stripe];
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new ResourceConflictException(BOOKING_IN_PROGRESS);
+                }
+                acquired.add(lock);
+            }
+            return transactionTemplate.execute(status -> {
+                if (databaseLocks) {
+                    int dayKey = (int) day.toEpochDay();
+                    databaseKeys.forEach(tableKey -> lockInDatabase(tableKey, dayKey, deadline));
+                }
+                return action.get();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceConflictException(BOOKING_IN_PROGRESS);
+        } finally {
+            unlockOnCompletion(acquired);
+        }
+    }
+
+    // Polls instead of waiting in Postgres, where a blocked lock could not be given up at the deadline
+    private void lockInDatabase(int tableKey, int dayKey, long deadline) {
+        long pauseMillis = 1;
+        while (!tableReservationRepository.tryLockTableDay(tableKey, dayKey)) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new ResourceConflictException(BOOKING_IN_PROGRESS);
+            }
+            try {
+                Thread.sleep(Math.min(pauseMillis, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceConflictException(BOOKING_IN_PROGRESS);
+            }
+            pauseMillis = Math.min(pauseMillis * 2, MAX_DATABASE_RETRY_PAUSE_MILLIS);
+        }
+    }
+
+    // Inside a caller's transaction the database locks outlive the action, so the stripes have to as well
+    private static void unlockOnCompletion(List<ReentrantLock> acquired) {
+        if (acquired.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            acquired.forEach(ReentrantLock::unlock);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Table;
+import com.example.restaurant_management_backend.jpa.model.TableReservation;
+
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minute by minute occupancy of the given tables on a single day. A reservation blocks its table from startTime
+ * inclusive to endTime exclusive, so reservations can follow each other directly. Reservations of tables that are
+ * not tracked are ignored.
+ */
+final class TableOccupancy {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Bit m is set when the table is taken during minute m of the day
+    private final Map<String, BitSet> occupiedMinutes = new LinkedHashMap<>();
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    TableOccupancy(List<Table> tables, List<TableReservation> reservations) {
+        for (Table table : tables) {
+            this.tables.put(table.getId(), table);
+            occupiedMinutes.put(table.getId(), new BitSet(MINUTES_PER_DAY));
+        }
+        for (TableReservation reservation : reservations) {
+            add(reservation);
+        }
+    }
+
+    void add(TableReservation reservation) {
+        BitSet occupied = reservation.getTableId() == null ? null : occupiedMinutes.get(reservation.getTableId());
+        if (occupied == null) {
+            return;
+        }
+        int start = minuteOfDay(reservation.getStartTime());
+        occupied.set(start, endMinute(start, reservation.getEndTime()));
+    }
+
+    boolean isFree(String tableId, LocalTime startTime, LocalTime endTime) {
+        BitSet occupied = occupiedMinutes.get(tableId);
+        if (occupied == null) {
+            return false;
+        }
+        int start = minuteOfDay(startTime);
+        int firstTaken = occupied.nextSetBit(start);
+        return firstTaken < 0 || firstTaken >= endMinute(start, endTime);
+    }
+
+    // Free minutes between the previous reservation of the table (or the start of the day) and the given minute
+    int freeMinutesBefore(String tableId, int minute) {
+        return minute - (occupiedMinutes.get(tableId).previousSetBit(minute - 1) + 1);
+    }
+
+    // Free minutes between the given minute and the next reservation of the table (or the end of the day)
+    int freeMinutesAfter(String tableId, int minute) {
+        int nextTaken = occupiedMinutes.get(tableId).nextSetBit(minute);
+        return (nextTaken < 0 ? MINUTES_PER_DAY : nextTaken) - minute;
+    }
+
+    List<Table> freeTables(LocalTime startTime, LocalTime endTime) {
+        return tables.values().stream()
+                .filter(table -> isFree(table.getId(), startTime, endTime))
+                .toList();
+    }
+
+    /**
+     * Returns the minutes of the day at which a reservation of the given duration fits on at least one table.
+     * Each table is swept once, gap by gap, so the cost does not depend on how many start times are checked later.
+     */
+    BitSet possibleStarts(int duration) {
+        BitSet starts = new BitSet(MINUTES_PER_DAY);
+        for (BitSet occupied : occupiedMinutes.values()) {
+            int gapStart = occupied.nextClearBit(0);
+            while (gapStart < MINUTES_PER_DAY) {
+                int gapEnd = occupied.nextSetBit(gapStart);
+                if (gapEnd < 0) {
+                    gapEnd = MINUTES_PER_DAY;
+                }
+                if (gapEnd - gapStart >= duration) {
+                    starts.set(gapStart, gapEnd - duration + 1);
+                }
+                gapStart = occupied.nextClearBit(gapEnd);
+            }
+        }
+        return starts;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // An end time at or before the start means the reservation lasts until midnight
+    static int endMinute(int startMinute, LocalTime endTime) {
+        int end = minuteOfDay(endTime);
+        return end > startMinute ? end : MINUTES_PER_DAY;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.restaurant_management_backend.services;
 
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
 import com.example.restaurant_management_backend.dto.PossibleReservationHoursForDayDTO;
 import com.example.restaurant_management_backend.exceptions.InvalidReservationException;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
@@ -8,7 +9,9 @@ import com.example.restaurant_management_backend.jpa.model.Table;
 import com.example.restaurant_management_backend.jpa.model.TableReservation;
 import com.example.restaurant_management_backend.jpa.model.command.MakeReservationCommand;
 import com.example.restaurant_management_backend.jpa.repositories.TableReservationRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -16,9 +19,13 @@ import java.time.LocalTime;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,77 +34,101 @@ public class TableReservationService {
     public static final String NO_TABLE_FOUND_FOR_THIS_TIME = "Brakuje stolika w podanym przedziale czasowym";
     public static final String TABLE_WITH_THIS_ID_IS_ALREADY_TAKEN = "Stolik o podanym id jest już zajęty";
     public static final String TABLE_DOES_NOT_EXIST_OR_CAPACITY_IS_TOO_LOW = "Podany stolik nie istnieje bądź nie jest w stanie pomieścić podanej liczby osób";
+    public static final int MAX_DAYS_IN_RANGE = 92;
     private final ConfigService configService;
     private final TableService tableService;
     private final TableReservationRepository tableReservationRepository;
     private final CustomerUserDetailsService customerService;
+    private final TableBookingLockService tableBookingLockService;
+    // Shared by availability requests only, so a month view cannot starve the common pool
+    private final ForkJoinPool availabilityPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     public List<LocalTime> checkPossibleHoursForDay(LocalDate day, int reservationDuration, int minutesToAdd, int numberOfPeople) {
-        List<LocalTime> possibleReservationStartHour = new ArrayList<>();
-        List<OpeningHour> openingHours = configService.getOpeningHours();
-        Optional<OpeningHour> hoursForSpecificDay = openingHours.stream()
-                .filter(openingHour -> openingHour.getDay().equals(day.getDayOfWeek()))
-                .findAny();
-        if (hoursForSpecificDay.isEmpty()) {
-            return possibleReservationStartHour;
+        validateSlotParameters(reservationDuration, minutesToAdd);
+        OpeningHour hoursForSpecificDay = configService.getSnapshot().getOpeningHour(day.getDayOfWeek());
+        if (hoursForSpecificDay == null) {
+            return new ArrayList<>();
+        }
+        return possibleHours(hoursForSpecificDay, tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople),
+                getTableReservationsForDay(day), reservationDuration, minutesToAdd);
+    }
+
+    // Loads opening hours, tables and reservations once for all days, then evaluates the days in parallel
+    public List<PossibleReservationHoursForDayDTO> checkPossibleHoursForDays(List<LocalDate> days, int reservationDuration, int minutesToAdd, int numberOfPeople) {
+        validateSlotParameters(reservationDuration, minutesToAdd);
+        if (days.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDate firstDay = Collections.min(days);
+        LocalDate lastDay = Collections.max(days);
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_DAYS_IN_RANGE) {
+            throw new IllegalArgumentException("Zakres dni nie może przekraczać " + MAX_DAYS_IN_RANGE + " dni");
         }
-        OpeningHour openingHour = hoursForSpecificDay.get();
-        LocalTime possibleStartTime = openingHour.getOpeningTime();
-        LocalTime closingTime = openingHour.getClosingTime();
-        int tables = tableService.countTablesWithGreaterOrEqualCapacity(numberOfPeople);
-        List<TableReservation> tableReservations = getTableReservationsForDay(day);
-        while (ChronoUnit.MINUTES.between(possibleStartTime, closingTime) >= reservationDuration) {
-            LocalTime possibleEndTime = ChronoUnit.MINUTES.addTo(possibleStartTime, reservationDuration);
-            List<TableReservation> reservationsInConflict = getReservationsInConflict(possibleStartTime, possibleEndTime, tableReservations);
-            if (tables > reservationsInConflict.size()) {
-                possibleReservationStartHour.add(possibleStartTime);
+
+        ConfigSnapshot config = configService.getSnapshot();
+        List<Table> tables = tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople);
+        Map<LocalDate, List<TableReservation>> reservationsByDay = tableReservationRepository.findAllByDayBetween(firstDay, lastDay)
+                .stream()
+                .collect(Collectors.groupingBy(TableReservation::getDay));
+
+        return availabilityPool.submit(() -> days.parallelStream()
+                .map(day -> {
+                    OpeningHour openingHour = config.getOpeningHour(day.getDayOfWeek());
+                    List<LocalTime> possibleHours = openingHour == null ? new ArrayList<>() : possibleHours(openingHour, tables,
+                            reservationsByDay.getOrDefault(day, List.of()), reservationDuration, minutesToAdd);
+                    return new PossibleReservationHoursForDayDTO(day, possibleHours);
+                })
+                .toList()).join();
+    }
+
+    private List<LocalTime> possibleHours(OpeningHour openingHour, List<Table> tables, List<TableReservation> reservations,
+                                          int reservationDuration, int minutesToAdd) {
+        List<LocalTime> possibleReservationStartHour = new ArrayList<>();
+        int openingMinute = TableOccupancy.minuteOfDay(openingHour.getOpeningTime());
+        int closingMinute = TableOccupancy.minuteOfDay(openingHour.getClosingTime());
+        BitSet possibleStarts = new TableOccupancy(tables, reservations).possibleStarts(reservationDuration);
+        for (int start = openingMinute; start + reservationDuration <= closingMinute; start += minutesToAdd) {
+            if (possibleStarts.get(start)) {
+                possibleReservationStartHour.add(LocalTime.of(start / 60, start % 60));
             }
-            possibleStartTime = possibleStartTime.plusMinutes(minutesToAdd);
         }
         return possibleReservationStartHour;
     }
 
-    public List<PossibleReservationHoursForDayDTO> checkPossibleHoursForDays(List<LocalDate> days, int reservationDuration, int minutesToAdd, int numberOfPeople) {
-        final var possibleReservationHours = new ArrayList<PossibleReservationHoursForDayDTO>();
-        for (LocalDate day : days) {
-            List<LocalTime> possibleHours = checkPossibleHoursForDay(day, reservationDuration, minutesToAdd, numberOfPeople);
-            final var reservation = new PossibleReservationHoursForDayDTO(day, possibleHours);
-            possibleReservationHours.add(reservation);
+    private void validateSlotParameters(int reservationDuration, int minutesToAdd) {
+        if (reservationDuration <= 0 || minutesToAdd <= 0) {
+            throw new IllegalArgumentException("Czas trwania rezerwacji i odstęp między godzinami muszą być większe od 0");
         }
-        return possibleReservationHours;
     }
 
     public TableReservation makeReservation(MakeReservationCommand request) {
         return makeReservation(request.getDay(), request.getStartTime(), request.getEndTime(), request.getNumberOfPeople(), request.getCustomerId());
     }
 
+    // The day's reservations are read again under the locks of every candidate table, so the choice cannot go stale
     public TableReservation makeReservation(LocalDate day, LocalTime startTime, LocalTime endTime, int numberOfPeople, Long customerId) {
-        if (day.isBefore(ZonedDateTime.now().toLocalDate())) {
-            throw new InvalidReservationException(CANNOT_MAKE_RESERVATION_IN_PAST);
-        }
+        checkIfReservationIsNotInPast(day);
         final var tables = tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople);
-        final var tableReservationList = getTableReservationsForDay(day);
+        final var tableIds = tables.stream().map(Table::getId).toList();
 
-        List<TableReservation> reservationsInConflict = getReservationsInConflict(startTime, endTime, tableReservationList);
-        if (reservationsInConflict.size() >= tables.size()) {
-            // Bajer: Return the first possible time
-            throw new InvalidReservationException(NO_TABLE_FOUND_FOR_THIS_TIME);
-        }
-
-        Table tableForReservation = getTableForReservation(reservationsInConflict, tables);
-
-        return fillTableReservation(day, startTime, endTime, numberOfPeople, customerId, tableForReservation);
+        return tableBookingLockService.withTableLocks(day, tableIds, () -> {
+            final var occupancy = new TableOccupancy(tables, getTableReservationsForDay(day));
+            Table tableForReservation = TableAllocator.bestFit(occupancy, occupancy.freeTables(startTime, endTime),
+                            numberOfPeople, startTime, endTime)
+                    .orElseThrow(() -> new InvalidReservationException(NO_TABLE_FOUND_FOR_THIS_TIME));
+            return fillTableReservation(day, startTime, endTime, numberOfPeople, customerId, tableForReservation);
+        });
     }
 
     public TableReservation makeReservation(LocalDate day, LocalTime startTime, LocalTime endTime, int numberOfPeople, Long customerId, String requestedTableId) {
         checkIfReservationIsNotInPast(day);
 
         var tables = tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople);
-        var conflictingReservations = getReservationsInConflict(startTime, endTime, getTableReservationsForDay(day));
-
-        Table table = checkIfRequestedTableIsValid(conflictingReservations, tables, requestedTableId);
-
-        return fillTableReservation(day, startTime, endTime, numberOfPeople, customerId, table);
+        return tableBookingLockService.withTableLocks(day, List.of(requestedTableId), () -> {
+            var occupancy = new TableOccupancy(tables, getTableReservationsForDay(day));
+            Table table = checkIfRequestedTableIsValid(occupancy, tables, requestedTableId, startTime, endTime);
+            return fillTableReservation(day, startTime, endTime, numberOfPeople, customerId, table);
+        });
     }
 
     private void checkIfReservationIsNotInPast(LocalDate day) {
@@ -107,55 +138,50 @@ public class TableReservationService {
     }
 
     public TableReservation findOrCreateReservation(LocalDate day, LocalTime startTime, LocalTime endTime, int numberOfPeople, Long customerId, String requestedTableId) {
-        // Check if a suitable reservation already exists
-        List<TableReservation> existingReservations = getTableReservationsForDay(day);
-        for (TableReservation reservation : existingReservations) {
-            if (reservation.getPeople() == numberOfPeople && reservation.getCustomerId().equals(customerId) && reservation.getTableId().equals(requestedTableId) &&
-                    startTime.isBefore(reservation.getEndTime()) && endTime.isAfter(reservation.getStartTime())) {
-                return reservation; // Return existing reservation if found
+        // Check and create under the same lock, so two identical requests cannot both create a reservation
+        return tableBookingLockService.withTableLocks(day, List.of(requestedTableId), () -> {
+            List<TableReservation> existingReservations = getTableReservationsForDay(day);
+            for (TableReservation reservation : existingReservations) {
+                if (reservation.getPeople() == numberOfPeople && Objects.equals(reservation.getCustomerId(), customerId) && requestedTableId.equals(reservation.getTableId()) &&
+                        startTime.isBefore(reservation.getEndTime()) && endTime.isAfter(reservation.getStartTime())) {
+                    return reservation; // Return existing reservation if found
+                }
             }
-        }
 
-        // No existing reservation found, so create a new one
-        return makeReservation(day, startTime, endTime, numberOfPeople, customerId, requestedTableId);
+            // No existing reservation found, so create a new one, the locks are reentrant
+            return makeReservation(day, startTime, endTime, numberOfPeople, customerId, requestedTableId);
+        });
     }
 
     public List<TableReservation> getAllTableReservations() {
         return tableReservationRepository.findAll();
     }
 
-    public List<TableReservation> getTableReservationsForDay(LocalDate day) {
-        return tableReservationRepository.findAllByDay(day);
-    }
-
-    private List<TableReservation> getReservationsInConflict(LocalTime startTime, LocalTime endTime, List<TableReservation> tableReservations) {
-        return tableReservations.stream()
-                .filter(dbReservation ->
-                        isTimeBetween(startTime, dbReservation.getStartTime(), dbReservation.getEndTime()) ||
-                                isTimeBetween(endTime, dbReservation.getStartTime(), dbReservation.getEndTime())
-                ).toList();
+    // Newest reservations first, [from, to] are inclusive days
+    public CursorPageDTO<TableReservation> getTableReservationsPage(String cursor, int limit, Long customerId,
+                                                                    String tableId, LocalDate from, LocalDate to) {
+        CursorPageDTO.validateLimit(limit);
+        CursorPageDTO.Cursor after = CursorPageDTO.Cursor.parse(cursor);
+        List<TableReservation> reservations = tableReservationRepository.findPage(
+                after == null ? null : after.at().toLocalDate(), after == null ? null : after.at().toLocalTime(),
+                after == null ? null : after.id(), customerId, tableId, from, to, PageRequest.ofSize(limit + 1));
+        return CursorPageDTO.of(reservations, limit, reservation -> new CursorPageDTO.Cursor(
+                reservation.getDay().atTime(reservation.getStartTime()), reservation.getId()));
     }
 
-    private Table getTableForReservation(List<TableReservation> reservationsInConflict, List<Table> tables) {
-        List<String> takenTables = reservationsInConflict.stream()
-                .map(TableReservation::getTableId)
-                .toList();
-        return tables.stream()
-                .filter(table -> !takenTables.contains(table.getId()))
-                .min(Comparator.comparingInt(Table::getCapacity))
-                .orElseThrow(() -> new InvalidReservationException(NO_TABLE_FOUND_FOR_THIS_TIME));
+    public List<TableReservation> getTableReservationsForDay(LocalDate day) {
+        return tableReservationRepository.findAllByDay(day);
     }
 
-    private Table checkIfRequestedTableIsValid(List<TableReservation> reservationsInConflict, List<Table> tables, String requestedTableId) {
-        List<String> idsOfTakenTables = reservationsInConflict.stream()
-                .map(TableReservation::getTableId)
-                .toList();
-        if (idsOfTakenTables.contains(requestedTableId)) {
+    private Table checkIfRequestedTableIsValid(TableOccupancy occupancy, List<Table> tables, String requestedTableId,
+                                               LocalTime startTime, LocalTime endTime) {
+        Table table = tables.stream()
+                .filter(t -> t.getId().equals(requestedTableId))
+                .findFirst().orElseThrow(() -> new InvalidReservationException(TABLE_DOES_NOT_EXIST_OR_CAPACITY_IS_TOO_LOW));
+        if (!occupancy.isFree(requestedTableId, startTime, endTime)) {
             throw new InvalidReservationException(TABLE_WITH_THIS_ID_IS_ALREADY_TAKEN);
         }
-        return tables.stream()
-                .filter(table -> table.getId().equals(requestedTableId))
-                .findFirst().orElseThrow(() -> new InvalidReservationException(TABLE_DOES_NOT_EXIST_OR_CAPACITY_IS_TOO_LOW));
+        return table;
     }
 
     public TableReservation getTableReservationById(Long id) {
@@ -191,6 +217,11 @@ public class TableReservationService {
         return tableReservationRepository.findAllByTableIdAndDay(tableId, day);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        availabilityPool.shutdown();
+    }
+
     public void deleteReservationById(Long id) {
         if (!tableReservationRepository.existsById(id)) {
             throw new NotFoundException("Rezerwacja z " + id + " nie została odnaleziona.");
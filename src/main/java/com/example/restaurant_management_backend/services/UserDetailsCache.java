@@ -0,0 +1,65 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.configuration.security.AuthenticatedCustomer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the principals of recently authenticated customers, keyed by email, so that requests carrying a JWT do not
+ * load the customer and its privilege every time. Entries expire after auth.user-cache.ttl-seconds and at most
+ * auth.user-cache.max-entries are kept. Changes of a customer's credentials or privilege must invalidate the entry;
+ * other instances see them once their entry expires.
+ */
+@Service
+public class UserDetailsCache {
+
+    private final BoundedExpiringCache<String, AuthenticatedCustomer> customers;
+    // Bumped by every invalidation, so a load that raced with one is not cached
+    private long invalidations;
+
+    public UserDetailsCache(@Value("${auth.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${auth.user-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.customers = new BoundedExpiringCache<>(maxEntries, Duration.ofSeconds(ttlSeconds),
+                BoundedExpiringCache.Expiry.AFTER_WRITE);
+    }
+
+    /**
+     * Returns the cached user or loads it. Loading happens outside the lock, so concurrent misses of the same email
+     * may load it twice. Exceptions of the loader are passed on and nothing is cached.
+     */
+    public AuthenticatedCustomer get(String email, Supplier<AuthenticatedCustomer> loader) {
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            AuthenticatedCustomer cached = customers.get(email);
+            if (cached != null) {
+                return cached;
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        AuthenticatedCustomer customer = loader.get();
+        synchronized (this) {
+            if (invalidations == invalidationsBeforeLoad) {
+                customers.put(email, customer);
+            }
+        }
+        return customer;
+    }
+
+    public synchronized void invalidate(String email) {
+        invalidations++;
+        customers.remove(email);
+    }
+
+    public synchronized void invalidateCustomer(Long customerId) {
+        invalidations++;
+        customers.removeValuesIf(customer -> customer.getId().equals(customerId));
+    }
+
+    public int size() {
+        return customers.size();
+    }
+}
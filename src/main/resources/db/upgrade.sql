@@ -0,0 +1,33 @@
+-- Changes ddl-auto=update does not make to existing tables. Runs after Hibernate on every start, so every
+-- statement checks whether it is still needed and does nothing, without taking table locks, once it has run.
+-- DO bodies are single-quoted rather than dollar-quoted, so the script splitter does not cut them at semicolons.
+
+-- Rollup revenue moved from double precision to exact amounts
+DO '
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = ''order_hourly_rollup'' AND column_name = ''revenue'') <> ''numeric'' THEN
+        ALTER TABLE order_hourly_rollup ALTER COLUMN revenue TYPE NUMERIC(14, 2);
+    END IF;
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = ''order_hourly_rollup'' AND column_name = ''delivery_revenue'') <> ''numeric'' THEN
+        ALTER TABLE order_hourly_rollup ALTER COLUMN delivery_revenue TYPE NUMERIC(14, 2);
+    END IF;
+END';
+
+-- Config and opening hours moved from identity columns to pooled sequences, delivery pricing to a named one. A new
+-- sequence starts at 1, so it is moved past the ids already in use when it is behind them; it never moves back
+SELECT setval('config_seq', (SELECT MAX(id) FROM config))
+WHERE (SELECT MAX(id) FROM config) > (SELECT last_value FROM config_seq);
+SELECT setval('opening_hour_seq', (SELECT MAX(id) FROM opening_hour))
+WHERE (SELECT MAX(id) FROM opening_hour) > (SELECT last_value FROM opening_hour_seq);
+SELECT setval('delivery_pricing_seq', (SELECT MAX(id) FROM delivery_pricing))
+WHERE (SELECT MAX(id) FROM delivery_pricing) > (SELECT last_value FROM delivery_pricing_seq);
+
+-- Replaced by idx_orders_date_time_id, which also orders the pages of orders
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_indexes WHERE tablename = ''orders'' AND indexname = ''idx_orders_date_time'') THEN
+        DROP INDEX idx_orders_date_time;
+    END IF;
+END';
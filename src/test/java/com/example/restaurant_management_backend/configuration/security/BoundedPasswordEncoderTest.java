@@ -0,0 +1,77 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void encodeAndMatches_shouldBehaveLikeBCrypt() {
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(meterRegistry, 1, 1);
+        try {
+            String hash = passwordEncoder.encode("haslo123");
+
+            assertThat(hash).startsWith("$2a$");
+            assertThat(passwordEncoder.matches("haslo123", hash)).isTrue();
+            assertThat(passwordEncoder.matches("inne", hash)).isFalse();
+        } finally {
+            passwordEncoder.shutdown();
+        }
+    }
+
+    @Test
+    void encode_whenQueueIsFull_shouldFailFastAndCountRejection() throws Exception {
+        CountDownLatch hashingStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(meterRegistry, 1, 1,
+                new BlockingPasswordEncoder(hashingStarted, release));
+        try {
+            // The first hash occupies the only thread, the second one waits in the queue
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("a"));
+            assertThat(hashingStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("b"));
+            while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> passwordEncoder.encode("c")).isInstanceOf(ServiceBusyException.class);
+            assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash-a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash-b");
+        } finally {
+            release.countDown();
+            passwordEncoder.shutdown();
+        }
+    }
+
+    private record BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
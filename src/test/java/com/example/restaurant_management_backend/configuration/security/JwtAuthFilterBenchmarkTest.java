@@ -0,0 +1,77 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.services.CustomerUserDetailsService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Sends anonymous requests from many addresses through the filter on 16 threads and prints the average time the
+ * filter adds per request. Addresses outnumber the limiter capacity, so eviction runs all the time.
+ */
+@Tag("benchmark")
+class JwtAuthFilterBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 50_000;
+    private static final int ADDRESSES = 200_000;
+    private static final int MAX_CLIENTS = 10_000;
+    private static final String[] PATHS = {"/api/meals/all", "/api/orders/add", "/auth/login", "/api/customer/get/1"};
+
+    @Test
+    void filter_shouldStayCheapAndBoundedUnderContention() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(MAX_CLIENTS, 60, 5, 10, 50, 50);
+        JwtAuthFilter filter = new JwtAuthFilter(mock(CustomerUserDetailsService.class), new JwtUtils(), rateLimiter);
+
+        run(filter, REQUESTS_PER_THREAD / 10);
+        long start = System.nanoTime();
+        run(filter, REQUESTS_PER_THREAD);
+        long elapsed = System.nanoTime() - start;
+
+        long requests = (long) THREADS * REQUESTS_PER_THREAD;
+        System.out.printf("%d requests on %d threads: %.0f ns per request, %d buckets kept%n", requests, THREADS,
+                (double) elapsed * THREADS / requests, rateLimiter.size());
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(MAX_CLIENTS);
+    }
+
+    private void run(JwtAuthFilter filter, int requestsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        int address = (int) (((long) thread * requestsPerThread + i) * 7919 % ADDRESSES);
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATHS[i % PATHS.length]);
+                        request.setRemoteAddr("10." + (address >> 16) + "." + ((address >> 8) & 255) + "."
+                                + (address & 255));
+                        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
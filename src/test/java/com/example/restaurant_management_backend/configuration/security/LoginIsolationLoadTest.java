@@ -0,0 +1,100 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A login storm mixed with menu reads on a pool standing in for the Tomcat request threads. Runs once with BCrypt
+ * on the request threads and once through BoundedPasswordEncoder, and prints the p99 latency of the menu reads.
+ * Takes seconds and depends on the machine, so it only runs with -Pbenchmarks.
+ */
+@Tag("benchmark")
+class LoginIsolationLoadTest {
+
+    private static final int REQUEST_THREADS = 32;
+    private static final int LOGINS = 150;
+    private static final int MENU_READS = 3000;
+
+    private record Result(long menuP99Nanos, int rejectedLogins) {
+    }
+
+    @Test
+    void menuReads_shouldStayFastDuringLoginStorm_whenHashingIsIsolated() throws Exception {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        String hash = bcrypt.encode("haslo123");
+
+        Result shared = run(bcrypt, hash);
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(new SimpleMeterRegistry(), 2, 16);
+        Result isolated;
+        try {
+            isolated = run(bounded, hash);
+        } finally {
+            bounded.shutdown();
+        }
+
+        System.out.printf("Menu p99 with BCrypt on request threads: %.1f ms; with the hashing pool: %.1f ms"
+                        + " (%d of %d logins answered with 503)%n", shared.menuP99Nanos() / 1e6,
+                isolated.menuP99Nanos() / 1e6, isolated.rejectedLogins(), LOGINS);
+        assertThat(isolated.menuP99Nanos()).isLessThan(shared.menuP99Nanos());
+    }
+
+    private Result run(PasswordEncoder passwordEncoder, String hash) throws Exception {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        List<Long> menuLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejectedLogins = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int menuReadsPerLogin = MENU_READS / LOGINS;
+            for (int i = 0; i < LOGINS; i++) {
+                futures.add(requestThreads.submit(() -> {
+                    try {
+                        passwordEncoder.matches("haslo123", hash);
+                    } catch (ServiceBusyException e) {
+                        rejectedLogins.incrementAndGet();
+                    }
+                }));
+                for (int j = 0; j < menuReadsPerLogin; j++) {
+                    long submitted = System.nanoTime();
+                    futures.add(requestThreads.submit(() -> {
+                        readMenu();
+                        menuLatencies.add(System.nanoTime() - submitted);
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            requestThreads.shutdownNow();
+        }
+        List<Long> sorted = new ArrayList<>(menuLatencies);
+        Collections.sort(sorted);
+        return new Result(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1), rejectedLogins.get());
+    }
+
+    // Roughly the work of serializing a small menu
+    private static void readMenu() {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"Danie ").append(i).append("\"},");
+        }
+        if (json.length() == 0) {
+            throw new IllegalStateException();
+        }
+    }
+}
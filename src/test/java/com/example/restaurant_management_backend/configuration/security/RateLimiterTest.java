@@ -0,0 +1,52 @@
+package com.example.restaurant_management_backend.configuration.security;
+
+import com.example.restaurant_management_backend.configuration.security.RateLimiter.RouteGroup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final RateLimiter rateLimiter = new RateLimiter(1000, 60, 2, 3, 5, 5);
+
+    @Test
+    void routeGroup_shouldBeChosenByPath() {
+        assertThat(RouteGroup.of("/auth/login")).isEqualTo(RouteGroup.AUTH);
+        assertThat(RouteGroup.of("/api/orders/add")).isEqualTo(RouteGroup.ORDERING);
+        assertThat(RouteGroup.of("/api/reservations")).isEqualTo(RouteGroup.ORDERING);
+        assertThat(RouteGroup.of("/api/meals/all")).isEqualTo(RouteGroup.PUBLIC_MENU);
+        assertThat(RouteGroup.of("/api/categories/get/1")).isEqualTo(RouteGroup.PUBLIC_MENU);
+        assertThat(RouteGroup.of("/api/customer/get/1")).isEqualTo(RouteGroup.DEFAULT);
+    }
+
+    @Test
+    void tryConsume_shouldApplyTheLimitOfTheRouteGroup() {
+        assertThat(rateLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1")).isTrue();
+        assertThat(rateLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1")).isTrue();
+        assertThat(rateLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1")).isFalse();
+
+        // Other groups and other clients have their own buckets
+        assertThat(rateLimiter.tryConsume(RouteGroup.PUBLIC_MENU, "10.0.0.1")).isTrue();
+        assertThat(rateLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    void tryConsume_shouldNeverKeepMoreThanMaxClients() {
+        for (int i = 0; i < 50_000; i++) {
+            rateLimiter.tryConsume(RouteGroup.PUBLIC_MENU, "10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void tryConsume_shouldDropIdleClients() throws InterruptedException {
+        RateLimiter expiringLimiter = new RateLimiter(1000, 0, 2, 3, 5, 5);
+        expiringLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1");
+        expiringLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1");
+        Thread.sleep(5);
+
+        // The exhausted bucket was idle, so a fresh one is created
+        assertThat(expiringLimiter.tryConsume(RouteGroup.AUTH, "10.0.0.1")).isTrue();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.restaurant_management_backend.controllers;
+
+import com.example.restaurant_management_backend.services.CatalogVersionService;
+import com.example.restaurant_management_backend.services.MenuPublicationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogResponsesTest {
+
+    private final CatalogVersionService catalogVersionService =
+            new CatalogVersionService(new ObjectMapper(), 60, 60, 300);
+    private final AtomicInteger loads = new AtomicInteger();
+    private String dish = "Pierogi";
+
+    private static final MenuPublicationService.Payload PAYLOAD =
+            new MenuPublicationService.Payload("[{}]".getBytes(), new byte[]{31, -117});
+
+    @Test
+    public void testConditional_ShouldReturnBodyWithValidators_WhenRequestIsUnconditional() {
+        ResponseEntity<List<String>> response = get(null, CatalogVersionService.Resource.CATEGORIES);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly("Pierogi");
+        assertThat(response.getHeaders().getETag()).startsWith("\"categories-");
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(-1);
+        assertThat(response.getHeaders().getCacheControl())
+                .isEqualTo("max-age=60, public, stale-while-revalidate=300");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testConditional_ShouldReturnNotModifiedWithoutLoading_WhenETagMatches() {
+        String eTag = get(null, CatalogVersionService.Resource.CATEGORIES).getHeaders().getETag();
+
+        ResponseEntity<List<String>> response = get(eTag, CatalogVersionService.Resource.CATEGORIES);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testConditional_ShouldReturnNewBody_WhenContentChanged() {
+        String eTag = get(null, CatalogVersionService.Resource.CATEGORIES).getHeaders().getETag();
+
+        dish = "Bigos";
+        catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
+        ResponseEntity<List<String>> response = get(eTag, CatalogVersionService.Resource.CATEGORIES);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly("Bigos");
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testConditional_ShouldKeepETag_WhenChangeLeftContentEqual() {
+        String eTag = get(null, CatalogVersionService.Resource.CATEGORIES).getHeaders().getETag();
+
+        catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
+        ResponseEntity<List<String>> response = get(eTag, CatalogVersionService.Resource.CATEGORIES);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testConditional_ShouldKeepETag_WhenOtherResourceChanged() {
+        String eTag = get(null, CatalogVersionService.Resource.CATEGORIES).getHeaders().getETag();
+
+        catalogVersionService.changed(CatalogVersionService.Resource.CONFIG,
+                CatalogVersionService.Resource.OPENING_HOURS);
+
+        assertThat(get(eTag, CatalogVersionService.Resource.CATEGORIES).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(get(eTag, CatalogVersionService.Resource.CONFIG).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testConditional_ShouldGiveSameETag_OnEveryInstanceAndAfterExpiry() {
+        CatalogVersionService otherInstance = new CatalogVersionService(new ObjectMapper(), 0, 60, 300);
+        String eTag = get(null, CatalogVersionService.Resource.CONFIG).getHeaders().getETag();
+
+        String first = otherInstance.load(CatalogVersionService.Resource.CONFIG, () -> List.of("Pierogi")).eTag();
+
+        assertThat(first).isEqualTo(eTag);
+        assertThat(otherInstance.rememberedETag(CatalogVersionService.Resource.CONFIG)).isNull();
+        assertThat(otherInstance.load(CatalogVersionService.Resource.CONFIG, () -> List.of("Pierogi")).eTag())
+                .isEqualTo(eTag);
+    }
+
+    @Test
+    public void testConditional_ShouldNotRememberETag_WhenResourceChangedWhileLoading() {
+        catalogVersionService.load(CatalogVersionService.Resource.CATEGORIES, () -> {
+            catalogVersionService.changed(CatalogVersionService.Resource.CATEGORIES);
+            return List.of("Pierogi");
+        });
+
+        assertThat(catalogVersionService.rememberedETag(CatalogVersionService.Resource.CATEGORIES)).isNull();
+    }
+
+    @Test
+    public void testConditionalJson_ShouldSendGzipCopyUnderOwnETag_WhenClientAcceptsGzip() {
+        ResponseEntity<byte[]> plain = getJson(null, null);
+        ResponseEntity<byte[]> compressed = getJson(null, "br, gzip;q=0.8");
+
+        assertThat(plain.getBody()).isSameAs(PAYLOAD.json());
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(compressed.getBody()).isSameAs(PAYLOAD.gzip());
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(compressed.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(compressed.getHeaders().getETag()).endsWith("-gzip\"").isNotEqualTo(plain.getHeaders().getETag());
+    }
+
+    @Test
+    public void testConditionalJson_ShouldReturnNotModified_OnlyForETagOfTheSameEncoding() {
+        String gzipETag = getJson(null, "gzip").getHeaders().getETag();
+
+        assertThat(getJson(gzipETag, "gzip").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(getJson(gzipETag, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(getJson(null, "gzip").getHeaders().getETag()).isEqualTo("\"menu-" + PAYLOAD.digest() + "-gzip\"");
+    }
+
+    @Test
+    public void testConditionalJson_ShouldUsePlainETag_WhenPayloadHasNoGzipCopy() {
+        MenuPublicationService.Payload uncompressed = new MenuPublicationService.Payload(new byte[]{'[', ']'}, null);
+
+        ResponseEntity<byte[]> response = getJson(null, "gzip", uncompressed);
+
+        assertThat(response.getBody()).isSameAs(uncompressed.json());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"menu-" + uncompressed.digest() + "\"");
+        assertThat(response.getHeaders().getETag()).isEqualTo(getJson(null, null, uncompressed).getHeaders().getETag());
+    }
+
+    @Test
+    public void testJson_ShouldSendPlainJson_WhenGzipIsRefusedOrMissing() {
+        MenuPublicationService.Payload uncompressed = new MenuPublicationService.Payload(new byte[]{'[', ']'}, null);
+
+        assertThat(json("gzip;q=0", PAYLOAD).getBody()).isSameAs(PAYLOAD.json());
+        assertThat(json("deflate", PAYLOAD).getBody()).isSameAs(PAYLOAD.json());
+        assertThat(json("*", PAYLOAD).getBody()).isSameAs(PAYLOAD.gzip());
+        assertThat(json("gzip", uncompressed).getBody()).isSameAs(uncompressed.json());
+        assertThat(json("gzip", uncompressed).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    private ResponseEntity<byte[]> getJson(String ifNoneMatch, String acceptEncoding) {
+        return getJson(ifNoneMatch, acceptEncoding, PAYLOAD);
+    }
+
+    private ResponseEntity<byte[]> getJson(String ifNoneMatch, String acceptEncoding,
+                                           MenuPublicationService.Payload payload) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/meals/all");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return CatalogResponses.conditionalJson(webRequest, catalogVersionService, "menu",
+                () -> {
+                    loads.incrementAndGet();
+                    return payload;
+                });
+    }
+
+    private ResponseEntity<byte[]> json(String acceptEncoding, MenuPublicationService.Payload payload) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/meals/get-meals/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return CatalogResponses.json(new ServletWebRequest(request, new MockHttpServletResponse()), payload);
+    }
+
+    private ResponseEntity<List<String>> get(String ifNoneMatch, CatalogVersionService.Resource resource) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/meals/all");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return CatalogResponses.conditional(webRequest, catalogVersionService, resource, () -> {
+            loads.incrementAndGet();
+            return List.of(dish);
+        });
+    }
+}
@@ -33,6 +33,16 @@ class JwtUtilsTest {
         assertFalse(jwtUtils.isTokenValid(expiredToken, "testuser"));
     }
 
+    @Test
+    void testParseValidClaims() {
+        String token = jwtUtils.generateToken("testuser");
+
+        assertEquals("testuser", jwtUtils.parseValidClaims(token).orElseThrow().getSubject());
+        assertTrue(jwtUtils.parseValidClaims(createExpiredToken()).isEmpty());
+        assertTrue(jwtUtils.parseValidClaims(new JwtUtils().generateToken("testuser")).isEmpty());
+        assertTrue(jwtUtils.parseValidClaims("not-a-token").isEmpty());
+    }
+
     private String createExpiredToken() {
         Map<String, Object> claims = new HashMap<>();
         String username = "testuser";
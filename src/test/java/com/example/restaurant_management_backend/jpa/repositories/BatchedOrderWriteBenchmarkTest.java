@@ -0,0 +1,21 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Uses the batching settings from application.properties
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BatchedOrderWriteBenchmarkTest extends OrderWriteBenchmark {
+
+    @Test
+    void savingOrders_shouldSendRowsInBatches() {
+        Result result = saveOrders("Batched inserts");
+
+        // Per flush: one sequence call and a handful of batched statements per table
+        assertThat(result.statements()).isLessThan(result.rows() / 10);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import com.example.restaurant_management_backend.jpa.model.MealQuantity;
+import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.OrderStatus;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.model.TableReservation;
+import com.example.restaurant_management_backend.jpa.model.UnwantedIngredient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts SQL statements needed to list orders together with everything the JSON response touches
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderRepositoryTest {
+
+    private static final int ORDERS = 20;
+    private static final long CUSTOMER_ID = 987654L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        TableReservation reservation = new TableReservation();
+        reservation.setTableId("1");
+        reservation.setPeople(2);
+        reservation.setDay(LocalDate.now());
+        reservation.setStartTime(LocalTime.of(12, 0));
+        reservation.setEndTime(LocalTime.of(14, 0));
+        entityManager.persist(reservation);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(List.of(new MealQuantity(1L, 2), new MealQuantity(2L, 1)), 40.0, 0.0, CUSTOMER_ID,
+                    OrderType.DO_STOLIKA, OrderStatus.OCZEKUJĄCE, LocalDateTime.now(),
+                    List.of(new UnwantedIngredient(0, List.of("Ser"))), null, 0.0,
+                    i % 2 == 0 ? reservation : null);
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByCustomerId_shouldNotIssueQueriesPerOrder() {
+        List<Order> orders = orderRepository.findByCustomerId(CUSTOMER_ID);
+        touchEverything(orders);
+
+        assertThat(orders).hasSize(ORDERS);
+        // orders with meals and reservation, unwanted ingredients, orders of the reservation
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void findAll_shouldNotIssueQueriesPerOrder() {
+        touchEverything(orderRepository.findAll());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void findPage_shouldBatchFetchCollections() {
+        List<Order> orders = orderRepository.findPage(null, null, null, null, CUSTOMER_ID, null, null,
+                PageRequest.ofSize(10));
+        touchEverything(orders);
+
+        assertThat(orders).hasSize(10);
+        // page, meal quantities, unwanted ingredients, reservation, orders of the reservation
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void findPage_shouldContinueAfterCursorInOrderOfTimeAndId() {
+        long customerId = CUSTOMER_ID + 1;
+        LocalDateTime noon = LocalDate.of(2024, 11, 1).atTime(12, 0);
+        // Ids do not follow the order time, like orders placed for a later pickup
+        Long late = persistOrder(customerId, noon.plusHours(2));
+        Long first = persistOrder(customerId, noon);
+        Long second = persistOrder(customerId, noon);
+        Long early = persistOrder(customerId, noon.minusHours(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Order> page = orderRepository.findPage(null, null, null, null, customerId, null, null,
+                PageRequest.ofSize(2));
+        Order last = page.get(1);
+        List<Order> next = orderRepository.findPage(last.getDateTime(), last.getId(), null, null, customerId, null,
+                null, PageRequest.ofSize(10));
+
+        assertThat(page).extracting(Order::getId).containsExactly(late, Math.max(first, second));
+        assertThat(next).extracting(Order::getId).containsExactly(Math.min(first, second), early);
+    }
+
+    private Long persistOrder(long customerId, LocalDateTime dateTime) {
+        Order order = new Order(List.of(new MealQuantity(1L, 1)), 20.0, 0.0, customerId, OrderType.NA_MIEJSCU,
+                OrderStatus.OCZEKUJĄCE, dateTime, List.of(), null, 0.0, null);
+        entityManager.persist(order);
+        return order.getId();
+    }
+
+    private void touchEverything(List<Order> orders) {
+        for (Order order : orders) {
+            order.getMealIds().size();
+            order.getUnwantedIngredients().size();
+            if (order.getTableReservation() != null) {
+                order.getTableReservation().getOrders().size();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import com.example.restaurant_management_backend.jpa.model.MealQuantity;
+import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.OrderStatus;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.model.UnwantedIngredient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves a lunch rush worth of orders, each with three meal quantities and one unwanted ingredient, flushing every
+ * 50 orders like a busy request stream would. Subclasses run it with and without JDBC batching and print inserted
+ * rows per second next to the number of statements prepared.
+ */
+@Tag("benchmark")
+abstract class OrderWriteBenchmark {
+
+    static final int ORDERS = 1000;
+    static final int ROWS_PER_ORDER = 5;
+    static final int FLUSH_EVERY = 50;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    record Result(long rows, long statements, double rowsPerSecond) {
+    }
+
+    Result saveOrders(String label) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        // One round outside the measurement to warm up the connection and the statement caches
+        writeOrders(FLUSH_EVERY);
+        statistics.clear();
+
+        long start = System.nanoTime();
+        writeOrders(ORDERS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Result result = new Result((long) ORDERS * ROWS_PER_ORDER, statistics.getPrepareStatementCount(),
+                ORDERS * ROWS_PER_ORDER / seconds);
+        System.out.printf("%s: %d rows in %d statements, %.0f rows/s%n", label, result.rows(), result.statements(),
+                result.rowsPerSecond());
+        return result;
+    }
+
+    private void writeOrders(int count) {
+        List<Order> chunk = new ArrayList<>(FLUSH_EVERY);
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Order(
+                    List.of(new MealQuantity(1L, 2), new MealQuantity(2L, 1), new MealQuantity(3L, 1)),
+                    55.0, 0.0, 1L, OrderType.NA_MIEJSCU, OrderStatus.OCZEKUJĄCE, LocalDateTime.now(),
+                    List.of(new UnwantedIngredient(0, List.of("Ser"))), null, 0.0, null));
+            if (chunk.size() == FLUSH_EVERY) {
+                orderRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                chunk.clear();
+            }
+        }
+        orderRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.restaurant_management_backend.jpa.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Baseline for BatchedOrderWriteBenchmarkTest: the same writes with JDBC batching turned off
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+        "spring.jpa.properties.hibernate.order_inserts=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UnbatchedOrderWriteBenchmarkTest extends OrderWriteBenchmark {
+
+    @Test
+    void savingOrders_withoutBatching_shouldSendOneStatementPerRow() {
+        Result result = saveOrders("Unbatched inserts");
+
+        assertThat(result.statements()).isGreaterThanOrEqualTo(result.rows());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.restaurant_management_backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedExpiringCacheTest {
+
+    @Test
+    public void testPut_ShouldEvictOldestWrite_WhenFull() {
+        BoundedExpiringCache<String, Integer> cache =
+                new BoundedExpiringCache<>(2, Duration.ofMinutes(1), BoundedExpiringCache.Expiry.AFTER_WRITE);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPut_ShouldEvictLeastRecentlyRead_WhenExpiringAfterAccess() {
+        BoundedExpiringCache<String, Integer> cache =
+                new BoundedExpiringCache<>(2, Duration.ofMinutes(1), BoundedExpiringCache.Expiry.AFTER_ACCESS);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    public void testGet_ShouldReturnNull_WhenEntryExpired() {
+        BoundedExpiringCache<String, Integer> cache =
+                new BoundedExpiringCache<>(2, Duration.ZERO, BoundedExpiringCache.Expiry.AFTER_WRITE);
+        cache.put("a", 1);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.computeIfAbsent("a", key -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemove_ShouldKeepEntry_WhenValueWasReplaced() {
+        BoundedExpiringCache<String, String> cache =
+                new BoundedExpiringCache<>(10, Duration.ofMinutes(1), BoundedExpiringCache.Expiry.AFTER_WRITE, 4);
+        cache.put("a", "first");
+        cache.put("a", "second");
+        cache.remove("a", "first");
+
+        assertThat(cache.get("a")).isEqualTo("second");
+
+        cache.removeValuesIf(value -> value.startsWith("sec"));
+
+        assertThat(cache.size()).isZero();
+    }
+}
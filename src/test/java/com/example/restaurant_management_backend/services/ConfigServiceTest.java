@@ -18,6 +18,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,6 +40,9 @@ public class ConfigServiceTest {
     @Mock
     private ConfigMapper configMapper;
 
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -162,6 +166,8 @@ public class ConfigServiceTest {
         verify(deliveryPriceRepository, times(1)).deleteAll();
         verify(openingHourRepository, times(1)).deleteAll();
         verify(configRepository, times(1)).deleteAll();
+        verify(catalogVersionService, times(1)).changed(CatalogVersionService.Resource.CONFIG,
+                CatalogVersionService.Resource.DELIVERY_PRICES, CatalogVersionService.Resource.OPENING_HOURS);
     }
 
     @Test
@@ -173,4 +179,48 @@ public class ConfigServiceTest {
         assertThrows(SystemNotInitializedException.class, () -> configService.removeAll());
         verifyNoInteractions(deliveryPriceRepository, openingHourRepository);
     }
+
+    @Test
+    public void getSnapshot_shouldReadTheDatabaseOnceUntilConfigurationChanges() {
+        // Given
+        when(configRepository.count()).thenReturn(1L);
+        when(deliveryPriceRepository.findAll()).thenReturn(List.of(deliveryPricing(5, 10.0)));
+
+        // When
+        configService.getDeliveryPrices();
+        configService.getSnapshot();
+        configService.removeAll();
+        configService.getSnapshot();
+
+        // Then
+        verify(deliveryPriceRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void getSnapshot_shouldNotKeepSnapshot_whenConfigurationChangedWhileLoading() {
+        // Given
+        AtomicBoolean changed = new AtomicBoolean();
+        when(configRepository.count()).thenReturn(1L);
+        when(deliveryPriceRepository.findAll()).thenAnswer(invocation -> {
+            if (changed.compareAndSet(false, true)) {
+                configService.removeAll();
+            }
+            return List.of(deliveryPricing(5, 10.0));
+        });
+
+        // When
+        configService.getSnapshot();
+        configService.getSnapshot();
+        configService.getSnapshot();
+
+        // Then
+        verify(deliveryPriceRepository, times(2)).findAll();
+    }
+
+    private static DeliveryPricing deliveryPricing(int maximumRange, double price) {
+        DeliveryPricing deliveryPricing = new DeliveryPricing();
+        deliveryPricing.setMaximumRange(maximumRange);
+        deliveryPricing.setPrice(price);
+        return deliveryPricing;
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.DeliveryPricing;
+import com.example.restaurant_management_backend.jpa.model.OpeningHour;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigSnapshotTest {
+
+    private final ConfigSnapshot snapshot = new ConfigSnapshot(
+            List.of(deliveryPricing(10, 15.0), deliveryPricing(3, 5.0), deliveryPricing(6, 9.0)),
+            List.of(openingHour(DayOfWeek.MONDAY), openingHour(DayOfWeek.FRIDAY)));
+
+    @Test
+    public void findDeliveryPrice_shouldReturnPriceOfSmallestCoveringTier() {
+        assertEquals(5.0, snapshot.findDeliveryPrice(0.5));
+        assertEquals(5.0, snapshot.findDeliveryPrice(3));
+        assertEquals(9.0, snapshot.findDeliveryPrice(3.1));
+        assertEquals(9.0, snapshot.findDeliveryPrice(6));
+        assertEquals(15.0, snapshot.findDeliveryPrice(9.99));
+        assertTrue(Double.isNaN(snapshot.findDeliveryPrice(10.01)));
+    }
+
+    @Test
+    public void findDeliveryPrice_shouldTreatZeroPricedTierAsMissing() {
+        ConfigSnapshot withZeroTier = new ConfigSnapshot(
+                List.of(deliveryPricing(3, 0.0), deliveryPricing(6, 9.0)), List.of());
+
+        assertTrue(Double.isNaN(withZeroTier.findDeliveryPrice(2)));
+        assertEquals(9.0, withZeroTier.findDeliveryPrice(4));
+    }
+
+    @Test
+    public void getDeliveryPrices_shouldBeSortedByMaximumRange() {
+        assertEquals(List.of(3, 6, 10), snapshot.getDeliveryPrices().stream().map(DeliveryPricing::getMaximumRange).toList());
+    }
+
+    @Test
+    public void getOpeningHour_shouldReturnNullOnClosedDays() {
+        assertEquals(DayOfWeek.MONDAY, snapshot.getOpeningHour(DayOfWeek.MONDAY).getDay());
+        assertNull(snapshot.getOpeningHour(DayOfWeek.SUNDAY));
+    }
+
+    private static DeliveryPricing deliveryPricing(int maximumRange, double price) {
+        DeliveryPricing deliveryPricing = new DeliveryPricing();
+        deliveryPricing.setMaximumRange(maximumRange);
+        deliveryPricing.setPrice(price);
+        return deliveryPricing;
+    }
+
+    private static OpeningHour openingHour(DayOfWeek day) {
+        OpeningHour openingHour = new OpeningHour();
+        openingHour.setDay(day);
+        openingHour.setOpeningTime(LocalTime.of(10, 0));
+        openingHour.setClosingTime(LocalTime.of(22, 0));
+        return openingHour;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.restaurant_management_backend.services;
 
+import com.example.restaurant_management_backend.configuration.security.AuthenticatedCustomer;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
 import com.example.restaurant_management_backend.jpa.model.Customer;
 import com.example.restaurant_management_backend.jpa.model.Privilege;
@@ -10,13 +11,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +38,9 @@ class CustomerUserDetailsServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -68,6 +79,89 @@ class CustomerUserDetailsServiceTest {
         assertThrows(UsernameNotFoundException.class, () -> customerUserDetailsService.loadUserByUsername(email));
     }
 
+    @Test
+    void loadAuthenticatedUser_shouldHitDatabaseOnceUntilCustomerIsSaved() {
+        String email = "test@example.com";
+        Customer customer = createMockCustomer(email);
+        when(customerRepository.findByEmail(email)).thenReturn(Optional.of(customer));
+        when(customerRepository.save(customer)).thenReturn(customer);
+        CustomerUserDetailsService service = new CustomerUserDetailsService(customerRepository,
+                new UserDetailsCache(10, 60));
+
+        UserDetails first = service.loadAuthenticatedUser(email);
+        UserDetails second = service.loadAuthenticatedUser(email);
+        service.save(customer);
+        service.loadAuthenticatedUser(email);
+
+        assertSame(first, second);
+        assertNull(first.getPassword());
+        assertTrue(first.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("USER_PRIVILEGE")));
+        verify(customerRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void save_insideTransaction_shouldEvictCachedUserOnlyAfterCommit() {
+        String email = "test@example.com";
+        Customer customer = createMockCustomer(email);
+        when(customerRepository.findByEmail(email)).thenReturn(Optional.of(customer));
+        UserDetailsCache cache = new UserDetailsCache(10, 60);
+        CustomerUserDetailsService service = new CustomerUserDetailsService(customerRepository, cache);
+        service.loadAuthenticatedUser(email);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.save(customer);
+            assertEquals(1, cache.size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(0, cache.size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadAuthenticatedUser_whenCustomerDoesNotExist_shouldThrowAndCacheNothing() {
+        String email = "nonexistent@example.com";
+        when(customerRepository.findByEmail(email)).thenReturn(Optional.empty());
+        UserDetailsCache cache = new UserDetailsCache(10, 60);
+        CustomerUserDetailsService service = new CustomerUserDetailsService(customerRepository, cache);
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadAuthenticatedUser(email));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void checkIfCustomerIsNotTryingToAccessDifferentCustomer_shouldUsePrincipalFromJwtFilter() {
+        setAuthenticatedCustomer(new AuthenticatedCustomer(1L, "test@example.com", PrivilegeName.USER_PRIVILEGE));
+
+        customerUserDetailsService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(1L);
+        assertThrows(AccessDeniedException.class,
+                () -> customerUserDetailsService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(2L));
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void checkIfCustomerIsNotTryingToAccessDifferentCustomer_whenAdmin_shouldAllowAnyCustomer() {
+        setAuthenticatedCustomer(new AuthenticatedCustomer(1L, "admin@example.com", PrivilegeName.ADMIN_PRIVILEGE));
+
+        customerUserDetailsService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(2L);
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void checkIfCustomerIsNotTryingToAccessDifferentCustomer_whenAnonymous_shouldDenyAccess() {
+        when(SecurityContextHolder.getContext().getAuthentication()).thenReturn(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+
+        assertThrows(AccessDeniedException.class,
+                () -> customerUserDetailsService.checkIfCustomerIsNotTryingToAccessDifferentCustomer(1L));
+
+        verifyNoInteractions(customerRepository);
+    }
+
     // Test for getCustomerById method - valid case
     @Test
     void getCustomerById_whenCustomerExists_shouldReturnCustomer() {
@@ -221,6 +315,11 @@ class CustomerUserDetailsServiceTest {
         verify(customerRepository, times(1)).save(customer);
     }
 
+    private void setAuthenticatedCustomer(AuthenticatedCustomer customer) {
+        when(SecurityContextHolder.getContext().getAuthentication())
+                .thenReturn(new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+    }
+
     // Helper method to create a mock customer
     private Customer createMockCustomer(String email) {
         Privilege privilege = new Privilege(PrivilegeName.USER_PRIVILEGE);
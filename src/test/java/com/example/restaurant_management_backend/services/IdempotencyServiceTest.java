@@ -0,0 +1,133 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyServiceTest {
+
+    private final IdempotencyService idempotencyService = new IdempotencyService(new ObjectMapper(), 2, 60);
+
+    @Test
+    public void testExecute_ShouldReturnFirstResult_WhenKeyIsReplayed() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Integer first = idempotencyService.execute(1L, "abc", "body", calls::incrementAndGet);
+        Integer replay = idempotencyService.execute(1L, "abc", "body", calls::incrementAndGet);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(replay).isEqualTo(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    public void testExecute_ShouldForgetKey_WhenActionFails() {
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "abc", "body", () -> {
+            throw new IllegalArgumentException("Lista posiłków nie może być pusta");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(idempotencyService.execute(1L, "abc", "body", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    public void testExecute_ShouldEvictOldestKey_WhenStoreIsFull() {
+        idempotencyService.execute(1L, "a", "body", () -> 1);
+        idempotencyService.execute(1L, "b", "body", () -> 2);
+        idempotencyService.execute(1L, "c", "body", () -> 3);
+
+        assertThat(idempotencyService.size()).isEqualTo(2);
+        assertThat(idempotencyService.execute(1L, "a", "body", () -> 4)).isEqualTo(4);
+    }
+
+    @Test
+    public void testExecute_ShouldRunActionOnce_WhenSameKeyArrivesConcurrently() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyService.execute(1L, "key", "body", () -> {
+                started.countDown();
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            started.await(1, TimeUnit.SECONDS);
+            Future<Integer> second = executor.submit(
+                    () -> idempotencyService.execute(1L, "key", "body", calls::incrementAndGet));
+            release.countDown();
+
+            assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_ShouldRejectTooLongKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "x".repeat(256), "body", () -> 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testExecute_ShouldRejectKey_WhenReusedWithDifferentBody() {
+        idempotencyService.execute(1L, "abc", "body", () -> 1);
+
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "abc", "other body", () -> 2))
+                .isInstanceOf(ResourceConflictException.class);
+    }
+
+    @Test
+    public void testExecute_ShouldKeepKeysOfDifferentCustomersApart() {
+        idempotencyService.execute(1L, "abc", "body", () -> 1);
+
+        assertThat(idempotencyService.execute(2L, "abc", "body", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    public void testExecute_ShouldAcceptOnlyIssuedKeys_ForGuests() {
+        String key = idempotencyService.issueGuestKey();
+
+        assertThat(idempotencyService.execute(null, key, "body", () -> 1)).isEqualTo(1);
+        assertThat(idempotencyService.execute(null, key, "body", () -> 2)).isEqualTo(1);
+        assertThatThrownBy(() -> idempotencyService.execute(null, "abc", "body", () -> 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testExecute_ShouldRejectGuestKey_WhenForgedExpiredOrIssuedElsewhere() {
+        String key = idempotencyService.issueGuestKey();
+        String forged = key.substring(0, key.lastIndexOf('.') + 1) + "x".repeat(43);
+        String otherInstance = new IdempotencyService(new ObjectMapper(), 2, 60).issueGuestKey();
+
+        IdempotencyService expiringService = new IdempotencyService(new ObjectMapper(), 2, 0);
+        String expired = expiringService.issueGuestKey();
+
+        for (String rejected : new String[]{forged, otherInstance, "a.b", "."}) {
+            assertThatThrownBy(() -> idempotencyService.execute(null, rejected, "body", () -> 1))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage(IdempotencyService.UNKNOWN_GUEST_KEY);
+        }
+        assertThatThrownBy(() -> expiringService.execute(null, expired, "body", () -> 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
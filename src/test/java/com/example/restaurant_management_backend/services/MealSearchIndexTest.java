@@ -0,0 +1,85 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MealSearchIndexTest {
+
+    private final MealSearchIndex index = new MealSearchIndex(List.of(
+            entry(1L, "Żurek staropolski", 1L, List.of("Zakwas", "Kiełbasa", "Jajko"), List.of("Gluten", "Jaja")),
+            entry(2L, "Pierogi ruskie", 2L, List.of("Ziemniaki", "Twaróg", "Cebula"), List.of("Gluten", "Mleko")),
+            entry(3L, "Pizza z kiełbasą", 2L, List.of("Ser", "Kiełbasa", "Pomidory"), List.of("Gluten", "Mleko")),
+            entry(4L, "Sałatka grecka", 3L, List.of("Ogórek", "Pomidory", "Oliwki"), List.of())));
+
+    @Test
+    public void search_shouldIgnoreCaseAndPolishDiacritics() {
+        assertEquals(List.of(1L), ids(index.search("ZUREK", null, null)));
+        assertEquals(List.of(4L), ids(index.search("salatka", null, null)));
+    }
+
+    @Test
+    public void search_shouldMatchPrefixesAndTypos() {
+        assertEquals(List.of(2L), ids(index.search("pier", null, null)));
+        assertEquals(List.of(2L), ids(index.search("peirogi", null, null)));
+        assertEquals(List.of(4L), ids(index.search("grceka", null, null)));
+    }
+
+    @Test
+    public void search_shouldRankNameMatchesAboveIngredientMatches() {
+        assertEquals(List.of(3L, 1L), ids(index.search("kiełbasa", null, null)));
+    }
+
+    @Test
+    public void search_shouldRequireEveryWord() {
+        assertEquals(List.of(3L), ids(index.search("kielbasa ser", null, null)));
+        assertTrue(index.search("kielbasa oliwki", null, null).isEmpty());
+    }
+
+    @Test
+    public void search_shouldFilterByAllergenAndCategory() {
+        assertEquals(List.of(4L), ids(index.search("pomidory", List.of("mleko"), null)));
+        assertEquals(List.of(2L, 3L), ids(index.search("", null, 2L)));
+        assertEquals(List.of(4L), ids(index.search(null, List.of("Gluten"), null)));
+    }
+
+    @Test
+    public void search_shouldMatchNothing_whenQueryHasNoWordsAndNoFilterIsGiven() {
+        assertTrue(index.search(null, null, null).isEmpty());
+        assertTrue(index.search(" ?! ", List.of(), null).isEmpty());
+        assertTrue(index.search("", List.of(" "), null).isEmpty());
+    }
+
+    @Test
+    public void search_shouldStillFindWordsInsideNames() {
+        assertEquals(List.of(3L), ids(index.search("izza", null, null)));
+    }
+
+    @Test
+    public void editDistance_shouldStopAboveTheLimit() {
+        assertEquals(1, MealSearchIndex.editDistance("pierogi", "pierogo", 1));
+        assertEquals(2, MealSearchIndex.editDistance("abcd", "wxyz", 1));
+    }
+
+    private static List<Long> ids(List<Meal> meals) {
+        return meals.stream().map(Meal::getId).toList();
+    }
+
+    private static MenuCatalogService.CatalogEntry entry(Long id, String name, Long categoryId, List<String> ingredients,
+                                                         List<String> allergens) {
+        Meal meal = Meal.builder()
+                .id(id)
+                .name(name)
+                .price(20.0)
+                .categoryId(categoryId)
+                .ingredients(ingredients)
+                .allergens(allergens)
+                .build();
+        return new MenuCatalogService.CatalogEntry(meal, new HashSet<>(ingredients), Set.of(), new HashSet<>(allergens));
+    }
+}
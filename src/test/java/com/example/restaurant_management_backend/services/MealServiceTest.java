@@ -2,6 +2,7 @@ package com.example.restaurant_management_backend.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +37,12 @@ public class MealServiceTest {
     @Mock
     private MealMapper mealMapper;
 
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    @Mock
+    private MenuPublicationService menuPublicationService;
+
     @InjectMocks
     private MealService mealService;
 
@@ -76,6 +83,7 @@ public class MealServiceTest {
         assertNotNull(savedMeal);
         assertEquals(meal.getName(), savedMeal.getName());
         verify(mealRepository, times(1)).save(any(Meal.class));
+        verify(menuCatalogService, times(1)).put(meal);
     }
 
     @Test
@@ -90,6 +98,32 @@ public class MealServiceTest {
         verify(mealRepository, never()).save(any(Meal.class));
     }
 
+    @Test
+    void shouldAddMealsInOneSaveAll() {
+        when(categoryRepository.existsById(anyLong())).thenReturn(true);
+        when(mealMapper.toMeal(any(MealAddCommand.class))).thenReturn(meal);
+        when(mealRepository.saveAll(anyList())).thenReturn(List.of(meal, meal));
+
+        List<Meal> savedMeals = mealService.addMeals(List.of(mealAddCommand, mealAddCommand));
+
+        assertEquals(2, savedMeals.size());
+        verify(mealRepository, times(1)).saveAll(anyList());
+        verify(mealRepository, never()).save(any(Meal.class));
+        verify(menuCatalogService, times(2)).put(meal);
+    }
+
+    @Test
+    void shouldNotSaveAnyMealWhenOneOfImportedMealsIsInvalid() {
+        when(categoryRepository.existsById(anyLong())).thenReturn(true, false);
+        when(mealMapper.toMeal(any(MealAddCommand.class))).thenReturn(meal);
+
+        assertThrows(NotFoundException.class,
+                () -> mealService.addMeals(List.of(mealAddCommand, mealAddCommand)));
+
+        verify(mealRepository, never()).saveAll(anyList());
+        verify(menuCatalogService, never()).put(any(Meal.class));
+    }
+
     @Test
     void shouldUpdateMealSuccessfully() {
         when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
@@ -101,6 +135,7 @@ public class MealServiceTest {
         assertNotNull(updatedMeal);
         assertEquals(meal.getName(), updatedMeal.getName());
         verify(mealRepository, times(1)).save(any(Meal.class));
+        verify(menuCatalogService, times(1)).put(meal);
     }
 
     @Test
@@ -121,6 +156,7 @@ public class MealServiceTest {
         mealService.deleteMealById(1L);
 
         verify(mealRepository, times(1)).deleteById(anyLong());
+        verify(menuCatalogService, times(1)).remove(1L);
     }
 
     @Test
@@ -136,25 +172,25 @@ public class MealServiceTest {
 
     @Test
     void shouldGetAllMeals() {
-        when(mealRepository.findAll()).thenReturn(Collections.singletonList(meal));
+        when(menuCatalogService.getAllMeals()).thenReturn(Collections.singletonList(meal));
 
         List<Meal> meals = mealService.getAllMeals();
 
         assertEquals(1, meals.size());
         assertEquals(meal.getName(), meals.get(0).getName());
-        verify(mealRepository, times(1)).findAll();
+        verify(mealRepository, never()).findAll();
     }
 
     @Test
     void shouldGetMealsByCategoryId() {
         when(categoryRepository.existsById(anyLong())).thenReturn(true);
-        when(mealRepository.findByCategoryId(anyLong())).thenReturn(Collections.singletonList(meal));
+        when(menuCatalogService.getMealsByCategoryId(1L)).thenReturn(Collections.singletonList(meal));
 
         List<Meal> meals = mealService.getMealsByCategoryId(1L);
 
         assertEquals(1, meals.size());
         assertEquals(meal.getName(), meals.get(0).getName());
-        verify(mealRepository, times(1)).findByCategoryId(anyLong());
+        verify(mealRepository, never()).findByCategoryId(anyLong());
     }
 
     @Test
@@ -168,6 +204,31 @@ public class MealServiceTest {
         assertTrue(exception.getMessage().contains("Kategoria o id"));
     }
 
+    @Test
+    void shouldServeRenderedCategoryWithoutCheckingCategory() {
+        MenuPublicationService.Payload payload = new MenuPublicationService.Payload(new byte[]{'[', ']'}, null);
+        when(menuPublicationService.getCategory(1L)).thenReturn(payload);
+
+        assertSame(payload, mealService.getMealsByCategoryIdPayload(1L));
+        verify(categoryRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void shouldServeEmptyListForExistingCategoryWithoutMeals() {
+        when(menuPublicationService.getCategory(1L)).thenReturn(null);
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+
+        assertSame(MenuPublicationService.EMPTY_LIST, mealService.getMealsByCategoryIdPayload(1L));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenGettingRenderedMealsOfInvalidCategory() {
+        when(menuPublicationService.getCategory(1L)).thenReturn(null);
+        when(categoryRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> mealService.getMealsByCategoryIdPayload(1L));
+    }
+
     @Test
     public void testAddMeal_ShouldNotAdd_WhenRemovableIngredients_Contain_Ingredient_ThatDoesNotExist() throws Exception {
         Exception exception = assertThrows(NotFoundException.class, () -> {
@@ -0,0 +1,94 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.example.restaurant_management_backend.jpa.repositories.MealRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class MenuCatalogServiceTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MenuCatalogService menuCatalogService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        menuCatalogService = new MenuCatalogService(mealRepository, transactionManager, 60);
+        when(mealRepository.findAll()).thenReturn(List.of(
+                createMeal(2L, "Pierogi", 1L, List.of("Ciasto", "Ser")),
+                createMeal(1L, "Pizza", 2L, List.of("Ciasto", "Ser", "Szynka"))));
+    }
+
+    @Test
+    public void testReads_ShouldLoadMenuOnlyOnce() {
+        assertThat(menuCatalogService.getAllMeals()).extracting(Meal::getName).containsExactly("Pizza", "Pierogi");
+        assertThat(menuCatalogService.contains(2L)).isTrue();
+        assertThat(menuCatalogService.findMeal(3L)).isEmpty();
+        assertThat(menuCatalogService.findEntry(1L).orElseThrow().ingredients()).containsExactlyInAnyOrder(
+                "Ciasto", "Ser", "Szynka");
+
+        verify(mealRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testGetMealById_ShouldReturnCopyWithUnmodifiableCollections() {
+        Meal meal = menuCatalogService.findMeal(1L).orElseThrow();
+
+        assertThatThrownBy(() -> meal.getIngredients().add("Ananas"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testPut_ShouldReplaceMealWithoutReloading() {
+        menuCatalogService.getAllMeals();
+
+        menuCatalogService.put(createMeal(1L, "Pizza hawajska", 2L, List.of("Ciasto", "Ananas")));
+
+        assertThat(menuCatalogService.findMeal(1L).orElseThrow().getName()).isEqualTo("Pizza hawajska");
+        assertThat(menuCatalogService.findEntry(1L).orElseThrow().ingredients()).doesNotContain("Szynka");
+        verify(mealRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testRemoveCategory_ShouldDropOnlyMealsOfThatCategory() {
+        menuCatalogService.getAllMeals();
+
+        menuCatalogService.removeCategory(1L);
+
+        assertThat(menuCatalogService.getAllMeals()).extracting(Meal::getId).containsExactly(1L);
+        assertThat(menuCatalogService.getMealsByCategoryId(1L)).isEmpty();
+    }
+
+    @Test
+    public void testReads_ShouldReloadMenu_WhenSnapshotIsOlderThanMaxAge() {
+        MenuCatalogService expiringCatalog = new MenuCatalogService(mealRepository, transactionManager, 0);
+        expiringCatalog.getAllMeals();
+        when(mealRepository.findAll()).thenReturn(List.of(createMeal(1L, "Pizza", 2L, List.of("Ciasto"))));
+
+        assertThat(expiringCatalog.getAllMeals()).extracting(Meal::getName).containsExactly("Pizza");
+        verify(mealRepository, times(2)).findAll();
+    }
+
+    private Meal createMeal(Long id, String name, Long categoryId, List<String> ingredients) {
+        Meal meal = new Meal(name, 20.0);
+        meal.setId(id);
+        meal.setCategoryId(categoryId);
+        meal.setIngredients(new ArrayList<>(ingredients));
+        return meal;
+    }
+}
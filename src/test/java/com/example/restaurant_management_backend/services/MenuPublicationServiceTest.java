@@ -0,0 +1,92 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.example.restaurant_management_backend.jpa.repositories.MealRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class MenuPublicationServiceTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+    private MenuCatalogService menuCatalogService;
+    private MenuPublicationService menuPublicationService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        menuCatalogService = new MenuCatalogService(mealRepository, transactionManager, 60);
+        menuPublicationService = new MenuPublicationService(menuCatalogService, objectMapper);
+        List<Meal> meals = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            meals.add(createMeal(id, "Pierogi " + id, id % 2 + 1));
+        }
+        when(mealRepository.findAll()).thenReturn(meals);
+    }
+
+    @Test
+    public void testGetMenu_ShouldRenderSameJsonAsTheMealList() throws IOException {
+        MenuPublicationService.Payload menu = menuPublicationService.getMenu();
+
+        assertThat(menu.json()).isEqualTo(new ObjectMapper().writeValueAsBytes(menuCatalogService.getAllMeals()));
+        assertThat(menu.gzip()).isNotNull();
+        assertThat(menu.gzip().length).isLessThan(menu.json().length);
+        assertThat(gunzip(menu.gzip())).isEqualTo(menu.json());
+    }
+
+    @Test
+    public void testGetMenu_ShouldRenderOnlyOnce_UntilCatalogChanges() throws IOException {
+        MenuPublicationService.Payload first = menuPublicationService.getMenu();
+        menuPublicationService.getCategory(1L);
+
+        assertThat(menuPublicationService.getMenu()).isSameAs(first);
+        // Whole menu and both categories
+        verify(objectMapper, times(3)).writeValueAsBytes(any());
+
+        menuCatalogService.remove(1L);
+
+        assertThat(menuPublicationService.getMenu()).isNotSameAs(first);
+        verify(objectMapper, times(6)).writeValueAsBytes(any());
+    }
+
+    @Test
+    public void testGetCategory_ShouldRenderMealsOfThatCategoryOnly() throws IOException {
+        MenuPublicationService.Payload category = menuPublicationService.getCategory(2L);
+
+        Meal[] meals = new ObjectMapper().readValue(category.json(), Meal[].class);
+        assertThat(meals).hasSize(20).allMatch(meal -> meal.getCategoryId() == 2L);
+        assertThat(menuPublicationService.getCategory(3L)).isNull();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    private Meal createMeal(Long id, String name, Long categoryId) {
+        Meal meal = new Meal(name, 20.0);
+        meal.setId(id);
+        meal.setCategoryId(categoryId);
+        meal.setIngredients(new ArrayList<>(List.of("Ciasto", "Ser")));
+        return meal;
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.restaurant_management_backend.services;
 
 import com.example.restaurant_management_backend.dto.AverageRatingResponseDTO;
+import com.example.restaurant_management_backend.dto.MealRatingResponseDTO;
 import com.example.restaurant_management_backend.dto.OpinionResponseDTO;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
 import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
 import com.example.restaurant_management_backend.jpa.model.Customer;
 import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.example.restaurant_management_backend.jpa.model.MealRating;
 import com.example.restaurant_management_backend.jpa.model.Opinion;
 import com.example.restaurant_management_backend.jpa.model.command.OpinionAddCommand;
+import com.example.restaurant_management_backend.jpa.repositories.MealRatingRepository;
 import com.example.restaurant_management_backend.jpa.repositories.OpinionRepository;
 import com.example.restaurant_management_backend.mappers.OpinionMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +42,9 @@ class OpinionServiceTest {
     @Mock
     private OpinionMapper opinionMapper;
 
+    @Mock
+    private MealRatingRepository mealRatingRepository;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -64,6 +70,7 @@ class OpinionServiceTest {
 
         // Then
         verify(opinionRepository, times(1)).save(any(Opinion.class));
+        verify(mealRatingRepository, times(1)).addToRating(mealId, 5, 1, 0, 0, 0, 0, 1);
         assertNotNull(result);
     }
 
@@ -102,13 +109,9 @@ class OpinionServiceTest {
     void getAverageRating_whenOpinionsExist_shouldReturnCorrectAverage() {
         // Given
         Long mealId = 1L;
-        List<Opinion> opinions = List.of(
-                createMockOpinion(5),
-                createMockOpinion(3),
-                createMockOpinion(4)
-        );
+        MealRating mealRating = new MealRating(mealId, 12, 3, 0, 0, 1, 1, 1);
 
-        when(opinionRepository.findByMealId(mealId)).thenReturn(opinions);
+        when(mealRatingRepository.findById(mealId)).thenReturn(Optional.of(mealRating));
 
         // When
         AverageRatingResponseDTO result = opinionService.getAverageRating(mealId);
@@ -116,6 +119,7 @@ class OpinionServiceTest {
         // Then
         assertEquals(4.0, result.averageRating());
         assertEquals(3, result.numberOfOpinions());
+        verify(opinionRepository, never()).findByMealId(mealId);
     }
 
     // Test for getAverageRating - no opinions
@@ -123,7 +127,7 @@ class OpinionServiceTest {
     void getAverageRating_whenNoOpinionsExist_shouldReturnZero() {
         // Given
         Long mealId = 1L;
-        when(opinionRepository.findByMealId(mealId)).thenReturn(List.of());
+        when(mealRatingRepository.findById(mealId)).thenReturn(Optional.empty());
 
         // When
         AverageRatingResponseDTO result = opinionService.getAverageRating(mealId);
@@ -133,6 +137,23 @@ class OpinionServiceTest {
         assertEquals(0, result.numberOfOpinions());
     }
 
+    // Test for getRatings - meals with and without opinions
+    @Test
+    void getRatings_whenSomeMealsAreRated_shouldReturnRatingsInRequestedOrder() {
+        // Given
+        MealRating mealRating = new MealRating(2L, 9, 2, 0, 0, 0, 1, 1);
+        when(mealRatingRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(mealRating));
+
+        // When
+        List<MealRatingResponseDTO> result = opinionService.getRatings(List.of(1L, 2L));
+
+        // Then
+        assertEquals(2, result.size());
+        assertNull(result.get(0).averageRating());
+        assertEquals(4.5, result.get(1).averageRating());
+        assertEquals(List.of(0L, 0L, 0L, 1L, 1L), result.get(1).ratingHistogram());
+    }
+
     // Test for getOpinionsForCustomer - valid case
     @Test
     void getOpinionsForCustomer_whenValid_shouldReturnOpinionList() {
@@ -183,6 +204,7 @@ class OpinionServiceTest {
         // Then
         assertNotNull(result);
         verify(opinionRepository, times(1)).save(opinion);
+        verify(mealRatingRepository, times(1)).addToRating(mealId, 0, 0, 0, 0, 0, 0, 0);
     }
 
     // Test for updateOpinion - opinion not found
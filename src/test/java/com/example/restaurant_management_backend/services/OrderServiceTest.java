@@ -1,6 +1,8 @@
 package com.example.restaurant_management_backend.services;
 
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
 import com.example.restaurant_management_backend.exceptions.NotFoundException;
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
 import com.example.restaurant_management_backend.jpa.model.*;
 import com.example.restaurant_management_backend.jpa.model.command.OrderAddCommand;
 import com.example.restaurant_management_backend.jpa.repositories.OrderRepository;
@@ -9,13 +11,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -42,6 +48,18 @@ public class OrderServiceTest {
     @Mock
     private CouponService couponService;
 
+    @Mock
+    private MealSalesService mealSalesService;
+
+    @Mock
+    private OrderRollupService orderRollupService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -52,7 +70,7 @@ public class OrderServiceTest {
         deliveryPricing.setId(1L);
         deliveryPricing.setMaximumRange(5);
         deliveryPricing.setPrice(5.0);
-        when(configService.getDeliveryPrices()).thenReturn(Collections.singletonList(deliveryPricing));
+        when(configService.getSnapshot()).thenReturn(new ConfigSnapshot(List.of(deliveryPricing), List.of()));
         Customer customer = new Customer();
         customer.setId(1L);
         when(customerService.getCustomerByIdOrThrowException(anyLong())).thenReturn(customer);
@@ -127,8 +145,7 @@ public class OrderServiceTest {
         Meal meal = new Meal("Meal", 20.0, null, Collections.emptyList(), Collections.emptyList(), 0.5, UnitType.GRAMY,
                 1L,
                 Collections.emptyList(), 100);
-        when(mealService.mealExists(1L)).thenReturn(true);
-        when(mealService.getMealById(1L)).thenReturn(meal);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
         when(configService.isSystemInitialized()).thenReturn(true);
 
@@ -137,16 +154,22 @@ public class OrderServiceTest {
         assertThat(result.getOrderPrice()).isEqualTo(40.0); // 20.0 * 2
         assertThat(result.getDeliveryPrice()).isEqualTo(5.0);
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(mealSalesService, times(1)).recordSale(command.getMealIds());
+        verify(orderRollupService, times(1)).recordOrder(result);
     }
 
     @Test
     public void testDeleteOrder_ShouldDeleteOrderSuccessfully() {
 
         Long orderId = 1L;
-        when(orderRepository.existsById(orderId)).thenReturn(true);
+        Order order = new Order();
+        order.setMealIds(Collections.singletonList(new MealQuantity(1L, 2)));
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
 
         orderService.deleteOrder(orderId);
 
+        verify(mealSalesService, times(1)).revertSale(order.getMealIds());
+        verify(orderRollupService, times(1)).revertOrder(order);
         verify(orderRepository, times(1)).deleteById(orderId);
     }
 
@@ -154,7 +177,7 @@ public class OrderServiceTest {
     public void testDeleteOrder_ShouldThrowNotFoundException_WhenOrderDoesNotExist() {
 
         Long orderId = 1L;
-        when(orderRepository.existsById(orderId)).thenReturn(false);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> orderService.deleteOrder(orderId))
                 .isInstanceOf(NotFoundException.class)
@@ -184,8 +207,7 @@ public class OrderServiceTest {
                 1L,
                 Collections.emptyList(), 100);
 
-        when(mealService.mealExists(1L)).thenReturn(true);
-        when(mealService.getMealById(1L)).thenReturn(meal);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
         when(configService.isSystemInitialized()).thenReturn(true);
 
@@ -200,7 +222,7 @@ public class OrderServiceTest {
         deliveryPricing.setId(1L);
         deliveryPricing.setMaximumRange(5);
         deliveryPricing.setPrice(5.0);
-        when(configService.getDeliveryPrices()).thenReturn(Collections.singletonList(deliveryPricing));
+        when(configService.getSnapshot()).thenReturn(new ConfigSnapshot(List.of(deliveryPricing), List.of()));
 
         // Act
         Order result = orderService.addOrder(command);
@@ -240,8 +262,7 @@ public class OrderServiceTest {
                 1L,
                 Collections.emptyList(), 100);
 
-        when(mealService.mealExists(1L)).thenReturn(true);
-        when(mealService.getMealById(1L)).thenReturn(meal);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
         when(configService.isSystemInitialized()).thenReturn(true);
 
@@ -279,9 +300,8 @@ public class OrderServiceTest {
                 null,
                 null);
 
-        when(mealService.mealExists(1L)).thenReturn(true);
-        when(mealService.getMealById(1L)).thenReturn(new Meal("Meal", 20.0, null, Collections.emptyList(),
-                Collections.emptyList(), 0.5, UnitType.GRAMY, 1L, Collections.emptyList(), 100));
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(new Meal("Meal", 20.0, null, Collections.emptyList(),
+                Collections.emptyList(), 0.5, UnitType.GRAMY, 1L, Collections.emptyList(), 100))));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
         when(configService.isSystemInitialized()).thenReturn(true);
 
@@ -314,8 +334,7 @@ public class OrderServiceTest {
                 1L,
                 Collections.emptyList(), 100);
         meal.setId(1L);
-        when(mealService.mealExists(1L)).thenReturn(true);
-        when(mealService.getMealById(1L)).thenReturn(meal);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
         when(configService.isSystemInitialized()).thenReturn(true);
 
@@ -333,4 +352,179 @@ public class OrderServiceTest {
         assertThat(result.getOrderPrice()).isEqualTo(20.0);
         verify(orderRepository, times(1)).save(any(Order.class));
     }
+
+    @Test
+    public void testAddOrder_ShouldSaveAsPendingPayment_WhenPaymentsAreAsync() {
+        OrderAddCommand command = new OrderAddCommand(
+                Collections.singletonList(new MealQuantity(1L, 2)),
+                1L,
+                OrderType.DOSTAWA,
+                OrderStatus.OCZEKUJĄCE,
+                null,
+                "Some Address",
+                5.0,
+                null,
+                null,
+                null,
+                null
+        );
+        Meal meal = new Meal("Meal", 20.0, null, Collections.emptyList(), Collections.emptyList(), 0.5, UnitType.GRAMY,
+                1L,
+                Collections.emptyList(), 100);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
+        when(paymentService.isAsync()).thenReturn(true);
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> {
+            Order order = i.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        Order result = orderService.addOrder(command);
+
+        assertThat(result.getPaymentStatus()).isEqualTo(PaymentStatus.PENDING_PAYMENT);
+        assertThat(result.getPaymentIntentClientSecret()).isNull();
+        verify(paymentService, never()).createClientSecret(anyLong(), anyLong());
+        verify(paymentService, times(1)).createClientSecretAsync(7L, 4500L);
+    }
+
+    @Test
+    public void testAddOrder_ShouldCreatePaymentAfterCommit_WhenPaymentsAreSynchronous() {
+        OrderAddCommand command = new OrderAddCommand(
+                Collections.singletonList(new MealQuantity(1L, 2)),
+                1L,
+                OrderType.NA_MIEJSCU,
+                OrderStatus.OCZEKUJĄCE,
+                null,
+                null,
+                0.0,
+                null,
+                null,
+                null,
+                null
+        );
+        Meal meal = new Meal("Meal", 20.0, null, Collections.emptyList(), Collections.emptyList(), 0.5, UnitType.GRAMY,
+                1L,
+                Collections.emptyList(), 100);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> {
+            Order order = i.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+        when(paymentService.createClientSecret(7L, 4000L)).thenAnswer(i -> {
+            verify(transactionManager, times(1)).commit(any());
+            return "secret";
+        });
+
+        Order result = orderService.addOrder(command);
+
+        assertThat(result.getPaymentStatus()).isEqualTo(PaymentStatus.CREATED);
+        assertThat(result.getPaymentIntentClientSecret()).isEqualTo("secret");
+        verify(paymentService, never()).createClientSecretAsync(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testAddOrder_ShouldReturnSavedOrderAsFailed_WhenSynchronousPaymentFails() {
+        OrderAddCommand command = new OrderAddCommand(
+                Collections.singletonList(new MealQuantity(1L, 2)),
+                1L,
+                OrderType.NA_MIEJSCU,
+                OrderStatus.OCZEKUJĄCE,
+                null,
+                null,
+                0.0,
+                null,
+                null,
+                null,
+                null
+        );
+        Meal meal = new Meal("Meal", 20.0, null, Collections.emptyList(), Collections.emptyList(), 0.5, UnitType.GRAMY,
+                1L,
+                Collections.emptyList(), 100);
+        when(mealService.getMealsByIds(Set.of(1L))).thenReturn(Map.of(1L, catalogEntry(meal)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> {
+            Order order = i.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+        when(paymentService.createClientSecret(7L, 4000L))
+                .thenThrow(new PaymentGatewayException("card declined", false, null));
+
+        Order result = orderService.addOrder(command);
+
+        assertThat(result.getId()).isEqualTo(7L);
+        assertThat(result.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(result.getPaymentIntentClientSecret()).isNull();
+        verify(orderRepository, times(1)).save(any(Order.class));
+    }
+
+    @Test
+    public void testAddOrder_ShouldResolveAllMealsOnce_AndRejectUnknownMeal() {
+        OrderAddCommand command = new OrderAddCommand(
+                Arrays.asList(new MealQuantity(1L, 1), new MealQuantity(2L, 3), new MealQuantity(1L, 2)),
+                1L,
+                OrderType.NA_MIEJSCU,
+                OrderStatus.OCZEKUJĄCE,
+                null,
+                null,
+                0.0,
+                null,
+                null,
+                null,
+                null
+        );
+        Meal meal = new Meal("Meal", 20.0, null, Collections.emptyList(), Collections.emptyList(), 0.5, UnitType.GRAMY,
+                1L,
+                Collections.emptyList(), 100);
+        when(mealService.getMealsByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, catalogEntry(meal)));
+
+        assertThatThrownBy(() -> orderService.addOrder(command))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("2");
+        verify(mealService, times(1)).getMealsByIds(any());
+        verify(mealService, never()).getMealById(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void testGetOrdersPage_ShouldReturnCursorOfLastItem_WhenMoreOrdersExist() {
+        LocalDateTime noon = LocalDate.of(2024, 11, 1).atTime(12, 0);
+        List<Order> fetched = Arrays.asList(orderWithId(30L, noon.plusHours(1)), orderWithId(10L, noon),
+                orderWithId(20L, noon.minusHours(1)));
+        when(orderRepository.findPage(eq(noon.plusHours(2)), eq(40L), eq(OrderStatus.GOTOWE), isNull(), isNull(),
+                eq(LocalDate.of(2024, 11, 1).atStartOfDay()), eq(LocalDate.of(2024, 11, 2).atStartOfDay()), any()))
+                .thenReturn(fetched);
+
+        CursorPageDTO<Order> page = orderService.getOrdersPage("2024-11-01T14:00_40", 2, OrderStatus.GOTOWE, null,
+                null, LocalDate.of(2024, 11, 1), LocalDate.of(2024, 11, 1));
+
+        assertThat(page.items()).extracting(Order::getId).containsExactly(30L, 10L);
+        assertThat(page.nextCursor()).isEqualTo("2024-11-01T12:00_10");
+    }
+
+    @Test
+    public void testGetOrdersPage_ShouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> orderService.getOrdersPage("40", 20, null, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(CursorPageDTO.INVALID_CURSOR);
+    }
+
+    @Test
+    public void testGetOrdersPage_ShouldRejectTooLargePage() {
+        assertThatThrownBy(() -> orderService.getOrdersPage(null, CursorPageDTO.MAX_PAGE_SIZE + 1, null, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(orderRepository, never()).findPage(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    private Order orderWithId(Long id, LocalDateTime dateTime) {
+        Order order = new Order();
+        order.setId(id);
+        order.setDateTime(dateTime);
+        return order;
+    }
+
+    private MenuCatalogService.CatalogEntry catalogEntry(Meal meal) {
+        return new MenuCatalogService.CatalogEntry(meal, Set.copyOf(meal.getIngredients()),
+                Set.copyOf(meal.getRemovableIngredList()), Set.copyOf(meal.getAllergens()));
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.PaymentGatewayException;
+import com.example.restaurant_management_backend.jpa.model.Order;
+import com.example.restaurant_management_backend.jpa.model.PaymentStatus;
+import com.example.restaurant_management_backend.jpa.repositories.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class PaymentServiceTest {
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentService paymentService;
+
+    private Order order;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        paymentService = new PaymentService(paymentGateway, orderRepository, transactionManager, true, 1, 10, 3, 1);
+        order = new Order();
+        order.setId(1L);
+        order.setPaymentStatus(PaymentStatus.PENDING_PAYMENT);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        paymentService.shutdown();
+    }
+
+    @Test
+    public void testCreateClientSecretAsync_ShouldRetryWithSameIdempotencyKey_WhenGatewayFailsTemporarily() {
+        when(paymentGateway.createPaymentIntent(4500L, PaymentService.CURRENCY, "order-1"))
+                .thenThrow(new PaymentGatewayException("timeout", true, null))
+                .thenReturn("secret");
+
+        paymentService.createClientSecretAsync(1L, 4500L);
+
+        verify(orderRepository, timeout(1000)).save(order);
+        verify(paymentGateway, times(2)).createPaymentIntent(4500L, PaymentService.CURRENCY, "order-1");
+        assertThat(order.getPaymentStatus()).isEqualTo(PaymentStatus.CREATED);
+        assertThat(order.getPaymentIntentClientSecret()).isEqualTo("secret");
+    }
+
+    @Test
+    public void testCreateClientSecretAsync_ShouldMarkOrderFailed_WhenErrorIsNotRetryable() {
+        when(paymentGateway.createPaymentIntent(anyLong(), anyString(), anyString()))
+                .thenThrow(new PaymentGatewayException("card declined", false, null));
+
+        paymentService.createClientSecretAsync(1L, 4500L);
+
+        verify(orderRepository, timeout(1000)).save(order);
+        verify(paymentGateway, times(1)).createPaymentIntent(anyLong(), anyString(), anyString());
+        assertThat(order.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    public void testCreateClientSecret_ShouldMarkOrderFailed_WhenGatewayFails() {
+        when(paymentGateway.createPaymentIntent(4500L, PaymentService.CURRENCY, "order-1"))
+                .thenThrow(new PaymentGatewayException("card declined", false, null));
+
+        assertThatThrownBy(() -> paymentService.createClientSecret(1L, 4500L))
+                .isInstanceOf(PaymentGatewayException.class);
+
+        verify(orderRepository).save(order);
+        assertThat(order.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+}
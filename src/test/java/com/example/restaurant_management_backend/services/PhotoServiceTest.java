@@ -0,0 +1,173 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PhotoServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private PhotoService photoService;
+
+    @BeforeEach
+    public void setUp() {
+        photoService = new PhotoService(uploadDir.toString(), 1, 10, 4_000_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        photoService.shutdown();
+    }
+
+    @Test
+    public void testUploadPhoto_ShouldCreateResizedJpegCopies() throws Exception {
+        byte[] photo = image(2000, 1500, false, "png");
+        photoService.uploadPhoto(new MockMultipartFile("file", "pierogi.png", "image/png", photo));
+
+        PhotoService.StoredPhoto card = awaitVariant("pierogi.png", PhotoService.PhotoSize.CARD);
+        PhotoService.StoredPhoto thumb = awaitVariant("pierogi.png", PhotoService.PhotoSize.THUMB);
+
+        assertThat(card.mediaType()).isEqualTo(MediaType.IMAGE_JPEG);
+        BufferedImage cardImage = ImageIO.read(card.resource().getInputStream());
+        assertThat(cardImage.getWidth()).isEqualTo(480);
+        assertThat(cardImage.getHeight()).isEqualTo(360);
+        assertThat(ImageIO.read(thumb.resource().getInputStream()).getWidth()).isEqualTo(160);
+        assertThat(card.resource().contentLength()).isLessThan(photo.length);
+    }
+
+    @Test
+    public void testUploadPhoto_ShouldKeepTransparencyInPngCopies() throws Exception {
+        byte[] logo = image(1200, 600, true, "png");
+        photoService.uploadPhoto(new MockMultipartFile("file", "logo.png", "image/png", logo));
+
+        PhotoService.StoredPhoto thumb = awaitVariant("logo.png", PhotoService.PhotoSize.THUMB);
+
+        assertThat(thumb.mediaType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(ImageIO.read(thumb.resource().getInputStream()).getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    public void testUploadPhoto_ShouldTurnCopiesUpright_WhenExifOrientationIsRotated() throws Exception {
+        byte[] photo = withExifOrientation(image(2000, 1000, false, "jpg"), 6);
+        photoService.uploadPhoto(new MockMultipartFile("file", "portrait.jpg", "image/jpeg", photo));
+
+        PhotoService.StoredPhoto card = awaitVariant("portrait.jpg", PhotoService.PhotoSize.CARD);
+
+        BufferedImage cardImage = ImageIO.read(card.resource().getInputStream());
+        assertThat(cardImage.getWidth()).isEqualTo(240);
+        assertThat(cardImage.getHeight()).isEqualTo(480);
+    }
+
+    @Test
+    public void testUploadPhoto_ShouldServeOriginal_WhenImageHasTooManyPixels() throws Exception {
+        photoService.uploadPhoto(new MockMultipartFile("file", "huge.png", "image/png",
+                image(2500, 2000, false, "png")));
+        // One worker takes the photos in order, once the second has copies the first one was handled
+        photoService.uploadPhoto(new MockMultipartFile("file", "small.png", "image/png",
+                image(1000, 800, false, "png")));
+        awaitVariant("small.png", PhotoService.PhotoSize.THUMB);
+
+        PhotoService.StoredPhoto photo = photoService.downloadPhoto("huge.png", PhotoService.PhotoSize.THUMB);
+
+        assertThat(photo.resource().getFilename()).isEqualTo("huge.png");
+        assertThat(photo.mediaType()).isEqualTo(MediaType.IMAGE_PNG);
+    }
+
+    @Test
+    public void testDownloadPhoto_ShouldServeOriginalAsOctetStream_WhenItIsNotAnImage() throws Exception {
+        photoService.uploadPhoto(new MockMultipartFile("file", "menu.txt", "text/plain", "Pierogi".getBytes()));
+        photoService.uploadPhoto(new MockMultipartFile("file", "menu.html", "text/html", "<script>".getBytes()));
+        photoService.uploadPhoto(new MockMultipartFile("file", "logo.svg", "image/svg+xml", "<svg/>".getBytes()));
+
+        PhotoService.StoredPhoto photo = photoService.downloadPhoto("menu.txt", PhotoService.PhotoSize.CARD);
+
+        assertThat(photo.mediaType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(photo.resource().getInputStream().readAllBytes()).isEqualTo("Pierogi".getBytes());
+        assertThat(photoService.downloadPhoto("menu.html", null).mediaType())
+                .isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(photoService.downloadPhoto("logo.svg", null).mediaType())
+                .isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Test
+    public void testDownloadPhoto_ShouldRejectPathsOutsideUploadDirectory() {
+        assertThatThrownBy(() -> photoService.downloadPhoto("../application.properties", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> photoService.downloadPhoto("missing.jpg", null))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void testPhotoSizeOf_ShouldParseSizesCaseInsensitively() {
+        assertThat(PhotoService.PhotoSize.of("Card")).isEqualTo(PhotoService.PhotoSize.CARD);
+        assertThat(PhotoService.PhotoSize.of(null)).isNull();
+        assertThat(PhotoService.PhotoSize.of("original")).isNull();
+        assertThatThrownBy(() -> PhotoService.PhotoSize.of("huge")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PhotoService.StoredPhoto awaitVariant(String filename, PhotoService.PhotoSize size) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            PhotoService.StoredPhoto photo = photoService.downloadPhoto(filename, size);
+            if (!photo.resource().getFilename().equals(filename)) {
+                return photo;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No " + size + " copy of " + filename);
+    }
+
+    // Inserts a big endian EXIF segment holding only the orientation tag after the JFIF header
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] app1 = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                1, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int at = 2;
+        if ((jpeg[2] & 0xFF) == 0xFF && (jpeg[3] & 0xFF) == 0xE0) {
+            at += 2 + ((jpeg[4] & 0xFF) << 8 | (jpeg[5] & 0xFF));
+        }
+        byte[] result = new byte[jpeg.length + app1.length];
+        System.arraycopy(jpeg, 0, result, 0, at);
+        System.arraycopy(app1, 0, result, at, app1.length);
+        System.arraycopy(jpeg, at, result, at + app1.length, jpeg.length - at);
+        return result;
+    }
+
+    static byte[] image(int width, int height, boolean transparent, String format) throws IOException {
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(width, height,
+                transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int value = (int) (128 + 60 * Math.sin(x / 90.0) * Math.cos(y / 70.0)) + random.nextInt(40) - 20;
+                value = Math.max(0, Math.min(255, value));
+                int alpha = transparent && x < width / 4 ? 0 : 255;
+                image.setRGB(x, y, alpha << 24 | value << 16 | (255 - value) << 8 | value / 2);
+            }
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, format, encoded);
+        return encoded.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.restaurant_management_backend.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads camera sized photos (4032 x 3024, JPEG quality 0.95) one after another, the way an admin fills the menu,
+ * and measures how long each takes until its card copy is served. Then compares the bytes a menu page of cards
+ * downloads with the originals it downloaded before.
+ */
+@Tag("benchmark")
+class PhotoVariantBenchmarkTest {
+
+    private static final int PHOTOS = 6;
+    private static final int MEALS_PER_PAGE = 20;
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void cardCopies_shouldBeAvailableWithinSecondsAndCutMenuPageBytes() throws Exception {
+        PhotoService photoService = new PhotoService(uploadDir.toString(), 2, 100, 50_000_000);
+        try {
+            byte[] photo = cameraPhoto();
+            List<Long> uploadedAt = new ArrayList<>();
+            for (int i = 0; i < PHOTOS; i++) {
+                uploadedAt.add(System.nanoTime());
+                photoService.uploadPhoto(new MockMultipartFile("file", "meal-" + i + ".jpg", "image/jpeg", photo));
+            }
+            List<Double> latencies = new ArrayList<>();
+            for (int i = 0; i < PHOTOS; i++) {
+                awaitCard(photoService, "meal-" + i + ".jpg");
+                latencies.add((System.nanoTime() - uploadedAt.get(i)) / 1_000_000.0);
+            }
+            Collections.sort(latencies);
+
+            long originalPage = 0;
+            long cardPage = 0;
+            long thumbPage = 0;
+            for (int i = 0; i < MEALS_PER_PAGE; i++) {
+                String filename = "meal-" + i % PHOTOS + ".jpg";
+                originalPage += photoService.downloadPhoto(filename, null).resource().contentLength();
+                cardPage += photoService.downloadPhoto(filename, PhotoService.PhotoSize.CARD).resource().contentLength();
+                thumbPage += photoService.downloadPhoto(filename, PhotoService.PhotoSize.THUMB).resource()
+                        .contentLength();
+            }
+
+            System.out.printf("Upload to card copy: median %.0f ms, max %.0f ms for %d photos of %d KB%n",
+                    latencies.get(PHOTOS / 2), latencies.get(PHOTOS - 1), PHOTOS, photo.length / 1024);
+            System.out.printf("Menu page of %d meals: originals %d KB, cards %d KB, thumbs %d KB%n", MEALS_PER_PAGE,
+                    originalPage / 1024, cardPage / 1024, thumbPage / 1024);
+            assertTrue(cardPage * 20 < originalPage, "cards should be at least 20 times smaller than originals");
+            assertTrue(thumbPage < cardPage);
+        } finally {
+            photoService.shutdown();
+        }
+    }
+
+    private static void awaitCard(PhotoService photoService, String filename) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (!photoService.downloadPhoto(filename, PhotoService.PhotoSize.CARD).resource().getFilename()
+                    .equals(filename)) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("No card copy of " + filename);
+    }
+
+    private static byte[] cameraPhoto() throws IOException {
+        byte[] png = PhotoServiceTest.image(4032, 3024, false, "png");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(encoded)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.95f);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(ImageIO.read(new ByteArrayInputStream(png)), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return encoded.toByteArray();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.NoDataException;
+import com.example.restaurant_management_backend.jpa.model.Meal;
+import com.example.restaurant_management_backend.jpa.model.OrderType;
+import com.example.restaurant_management_backend.jpa.repositories.projections.MealRatingSummary;
+import com.example.restaurant_management_backend.jpa.repositories.projections.OrdersByDayHour;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class StatsServiceTest {
+
+    @Mock
+    private MealService mealService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderRollupService orderRollupService;
+
+    @Mock
+    private OpinionService opinionService;
+
+    @Mock
+    private MealSalesService mealSalesService;
+
+    @InjectMocks
+    private StatsService statsService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mealService.getAllMeals()).thenReturn(List.of(
+                createMeal(1L, "Pizza"),
+                createMeal(2L, "Pierogi"),
+                createMeal(3L, "Rosół"),
+                createMeal(4L, "Schabowy")));
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldReturnMostSoldMealsInDescendingOrder() {
+        when(mealSalesService.getQuantitiesSold()).thenReturn(Map.of(1L, 5L, 2L, 12L, 3L, 7L));
+
+        Map<String, Integer> result = statsService.getNMostPopularMeals("most", 2);
+
+        assertThat(result).containsExactly(Map.entry("Pierogi", 12), Map.entry("Rosół", 7));
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldIncludeMealsWithoutSales_WhenAskingForLeastPopular() {
+        when(mealSalesService.getQuantitiesSold()).thenReturn(Map.of(1L, 5L, 2L, 12L, 3L, 7L));
+
+        Map<String, Integer> result = statsService.getNMostPopularMeals("least", 3);
+
+        assertThat(result).containsExactly(Map.entry("Schabowy", 0), Map.entry("Pizza", 5), Map.entry("Rosół", 7));
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldCountMealsSharingANameTogether_AndStillReturnNEntries() {
+        when(mealService.getAllMeals()).thenReturn(List.of(
+                createMeal(1L, "Pierogi"),
+                createMeal(2L, "Pierogi"),
+                createMeal(3L, "Rosół"),
+                createMeal(4L, "Schabowy")));
+        when(mealSalesService.getQuantitiesSold()).thenReturn(Map.of(1L, 5L, 2L, 4L, 3L, 7L, 4L, 1L));
+
+        Map<String, Integer> result = statsService.getNMostPopularMeals("most", 2);
+
+        assertThat(result).containsExactly(Map.entry("Pierogi", 9), Map.entry("Rosół", 7));
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldThrowNoDataException_WhenNothingWasSold() {
+        when(mealSalesService.getQuantitiesSold()).thenReturn(Map.of());
+
+        assertThatThrownBy(() -> statsService.getNMostPopularMeals("most", 2))
+                .isInstanceOf(NoDataException.class);
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldThrowIllegalArgumentException_WhenNIsGreaterThanMenu() {
+        assertThatThrownBy(() -> statsService.getNMostPopularMeals("most", 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testGetNMostPopularMeals_ShouldQueryOrdersWithinWindow_WhenFilterIsGiven() {
+        LocalDate from = LocalDate.of(2024, 11, 1);
+        LocalDate to = LocalDate.of(2024, 11, 7);
+        when(orderService.getMealQuantitiesSold(from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                List.of(OrderType.DOSTAWA))).thenReturn(Map.of(4L, 3L));
+
+        Map<String, Integer> result = statsService.getNMostPopularMeals("most", 1, from, to, OrderType.DOSTAWA);
+
+        assertThat(result).containsExactly(Map.entry("Schabowy", 3));
+        verify(mealSalesService, never()).getQuantitiesSold();
+    }
+
+    @Test
+    public void testGetEarningsByYearMonth_ShouldThrowIllegalArgumentException_WhenWindowIsReversed() {
+        assertThatThrownBy(() -> statsService.getEarningsByYearMonth(LocalDate.of(2024, 11, 7),
+                LocalDate.of(2024, 11, 1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testGetAmountOfOrdersByDayAndHour_ShouldMapRollupBucketsToPolishKeys() {
+        OrdersByDayHour bucket = createDayHourBucket(5, 13, 42L);
+        when(orderRollupService.getOrdersByDayAndHour()).thenReturn(List.of(bucket));
+
+        Map<String, Integer> result = statsService.getAmountOfOrdersByDayAndHour();
+
+        assertThat(result).containsExactly(Map.entry("Piątek 13:00", 42));
+    }
+
+    @Test
+    public void testGetEarningsByYearMonth_ShouldThrowNoDataException_WhenRollupIsEmpty() {
+        when(orderRollupService.getEarningsByYearMonth()).thenReturn(List.of());
+
+        assertThatThrownBy(() -> statsService.getEarningsByYearMonth())
+                .isInstanceOf(NoDataException.class);
+    }
+
+    @Test
+    public void testGetNBestOrWorstRatedMeals_ShouldReturnBestRatedMealsFromSummaries() {
+        MealRatingSummary pizza = createRatingSummary("Pizza", 4.5);
+        MealRatingSummary pierogi = createRatingSummary("Pierogi", 3.0);
+        MealRatingSummary rosol = createRatingSummary("Rosół", 5.0);
+        when(mealService.countMeals()).thenReturn(4L);
+        when(opinionService.getRatingSummaries()).thenReturn(List.of(pizza, pierogi, rosol));
+
+        Map<String, Double> result = statsService.getNBestOrWorstRatedMeals("best", 2);
+
+        assertThat(result).containsExactly(Map.entry("Rosół", 5.0), Map.entry("Pizza", 4.5));
+        verify(opinionService, never()).getOpinionsForMeal(anyLong());
+    }
+
+    private MealRatingSummary createRatingSummary(String mealName, double averageRating) {
+        MealRatingSummary summary = mock(MealRatingSummary.class);
+        when(summary.getMealName()).thenReturn(mealName);
+        when(summary.getAverageRating()).thenReturn(averageRating);
+        return summary;
+    }
+
+    private OrdersByDayHour createDayHourBucket(int day, int hour, long orders) {
+        OrdersByDayHour bucket = mock(OrdersByDayHour.class);
+        when(bucket.getDay()).thenReturn(day);
+        when(bucket.getHour()).thenReturn(hour);
+        when(bucket.getOrders()).thenReturn(orders);
+        return bucket;
+    }
+
+    private Meal createMeal(Long id, String name) {
+        Meal meal = new Meal(name, 20.0);
+        meal.setId(id);
+        return meal;
+    }
+}
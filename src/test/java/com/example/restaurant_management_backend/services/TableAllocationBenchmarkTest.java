@@ -0,0 +1,131 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.jpa.model.Table;
+import com.example.restaurant_management_backend.jpa.model.TableReservation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays synthetic busy evenings (17:00 - 23:00, bookings arriving in random order) against the previous policy,
+ * which took the smallest free table, and the best fit allocator. Prints rejection rate and seat utilization.
+ */
+@Tag("benchmark")
+class TableAllocationBenchmarkTest {
+
+    private static final int EVENINGS = 500;
+    private static final int EVENING_START = 17 * 60;
+    private static final int EVENING_MINUTES = 6 * 60;
+    private static final int[] CAPACITIES = {2, 2, 2, 2, 4, 4, 4, 4, 6, 6, 8};
+
+    private record Request(int people, int start, int end) {
+    }
+
+    private record Result(long requests, long rejected, long seatMinutesUsed, long seatMinutesAvailable) {
+        double rejectionRate() {
+            return (double) rejected / requests;
+        }
+
+        double utilization() {
+            return (double) seatMinutesUsed / seatMinutesAvailable;
+        }
+    }
+
+    @Test
+    void bestFit_shouldRejectFewerPartiesThanSmallestTableFirst_onBusyEvenings() {
+        List<Table> tables = new ArrayList<>();
+        for (int i = 0; i < CAPACITIES.length; i++) {
+            tables.add(new Table("t" + (i + 1), CAPACITIES[i]));
+        }
+
+        for (int bookingsPerEvening : new int[]{30, 40, 50}) {
+            Random random = new Random(42);
+            Result smallestFirst = new Result(0, 0, 0, 0);
+            Result bestFit = new Result(0, 0, 0, 0);
+            for (int evening = 0; evening < EVENINGS; evening++) {
+                List<Request> requests = new ArrayList<>();
+                for (int i = 0; i < bookingsPerEvening; i++) {
+                    int people = partySize(random);
+                    int start = EVENING_START + 15 * random.nextInt(19);
+                    int duration = random.nextBoolean() ? 90 : 120;
+                    requests.add(new Request(people, start, start + duration));
+                }
+                smallestFirst = add(smallestFirst, replay(tables, requests, false));
+                bestFit = add(bestFit, replay(tables, requests, true));
+            }
+
+            System.out.printf("%d bookings/evening: smallest table first rejects %.1f%%, uses %.1f%% of seats;"
+                            + " best fit rejects %.1f%%, uses %.1f%% of seats%n", bookingsPerEvening,
+                    100 * smallestFirst.rejectionRate(), 100 * smallestFirst.utilization(),
+                    100 * bestFit.rejectionRate(), 100 * bestFit.utilization());
+            assertTrue(bestFit.rejectionRate() < smallestFirst.rejectionRate());
+            assertTrue(bestFit.utilization() >= smallestFirst.utilization());
+        }
+    }
+
+    private Result replay(List<Table> tables, List<Request> requests, boolean useBestFit) {
+        TableOccupancy occupancy = new TableOccupancy(tables, List.of());
+        long rejected = 0;
+        long seatMinutesUsed = 0;
+        for (Request request : requests) {
+            LocalTime startTime = toTime(request.start());
+            LocalTime endTime = toTime(request.end());
+            List<Table> freeTables = occupancy.freeTables(startTime, endTime).stream()
+                    .filter(table -> table.getCapacity() >= request.people())
+                    .toList();
+            Optional<Table> table = useBestFit
+                    ? TableAllocator.bestFit(occupancy, freeTables, request.people(), startTime, endTime)
+                    : freeTables.stream().min(Comparator.comparingInt(Table::getCapacity));
+            if (table.isEmpty()) {
+                rejected++;
+                continue;
+            }
+            TableReservation reservation = new TableReservation();
+            reservation.setTableId(table.get().getId());
+            reservation.setStartTime(startTime);
+            reservation.setEndTime(endTime);
+            occupancy.add(reservation);
+            seatMinutesUsed += (long) request.people() * (request.end() - request.start());
+        }
+        long seats = tables.stream().mapToInt(Table::getCapacity).sum();
+        return new Result(requests.size(), rejected, seatMinutesUsed, seats * EVENING_MINUTES);
+    }
+
+    private static Result add(Result a, Result b) {
+        return new Result(a.requests() + b.requests(), a.rejected() + b.rejected(),
+                a.seatMinutesUsed() + b.seatMinutesUsed(), a.seatMinutesAvailable() + b.seatMinutesAvailable());
+    }
+
+    // Mostly couples and small groups, occasionally a large party
+    private static int partySize(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 35) {
+            return 2;
+        }
+        if (roll < 50) {
+            return 1;
+        }
+        if (roll < 70) {
+            return 3;
+        }
+        if (roll < 85) {
+            return 4;
+        }
+        if (roll < 93) {
+            return 5 + random.nextInt(2);
+        }
+        return 7 + random.nextInt(2);
+    }
+
+    private static LocalTime toTime(int minuteOfDay) {
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
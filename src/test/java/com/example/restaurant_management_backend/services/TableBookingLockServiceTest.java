@@ -0,0 +1,81 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.ResourceConflictException;
+import com.example.restaurant_management_backend.jpa.repositories.TableReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Two services stand for two application instances, so only the Postgres advisory locks can order their bookings
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TableBookingLockServiceTest {
+
+    private static final long LOCK_TIMEOUT_MILLIS = 200;
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 15);
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testWithTableLocks_ShouldFailWithConflictAfterTimeout_WhenOtherInstanceHoldsTable() throws Exception {
+        TableBookingLockService first = newInstance();
+        TableBookingLockService second = newInstance();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> first.withTableLocks(DAY, List.of("1"),
+                () -> {
+                    locked.countDown();
+                    await(release);
+                    return "first";
+                }));
+        try {
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> second.withTableLocks(DAY, List.of("1"), () -> "second"))
+                    .isInstanceOf(ResourceConflictException.class)
+                    .hasMessage(TableBookingLockService.BOOKING_IN_PROGRESS);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                    .isGreaterThanOrEqualTo(LOCK_TIMEOUT_MILLIS)
+                    .isLessThan(5_000);
+
+            assertThat(second.withTableLocks(DAY, List.of("2"), () -> "other table")).isEqualTo("other table");
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.withTableLocks(DAY, List.of("1"), () -> "second")).isEqualTo("second");
+    }
+
+    private TableBookingLockService newInstance() {
+        return new TableBookingLockService(tableReservationRepository, transactionManager, true, LOCK_TIMEOUT_MILLIS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.exceptions.InvalidReservationException;
+import com.example.restaurant_management_backend.jpa.model.Table;
+import com.example.restaurant_management_backend.jpa.model.TableReservation;
+import com.example.restaurant_management_backend.jpa.repositories.TableReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+// Stress test of the in-process locking, the Postgres advisory locks need a database and are not covered here
+class TableReservationConcurrencyTest {
+
+    private static final int BOOKINGS = 4000;
+    private static final int THREADS = 16;
+    private static final List<Table> TABLES = List.of(new Table("1", 2), new Table("2", 4), new Table("3", 6));
+
+    @Mock
+    private ConfigService configService;
+    @Mock
+    private TableService tableService;
+    @Mock
+    private TableReservationRepository tableReservationRepository;
+    @Mock
+    private CustomerUserDetailsService customerService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<TableReservation> savedReservations = new CopyOnWriteArrayList<>();
+    private TableReservationService tableReservationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tableService.findTablesWithGreaterOrEqualCapacity(anyInt())).thenAnswer(invocation -> {
+            int people = invocation.getArgument(0);
+            return TABLES.stream().filter(table -> table.getCapacity() >= people).toList();
+        });
+        // Reading and saving yield to other threads, which makes an unguarded check-then-save race likely
+        when(tableReservationRepository.findAllByDay(any())).thenAnswer(invocation -> {
+            LocalDate day = invocation.getArgument(0);
+            List<TableReservation> reservations = savedReservations.stream()
+                    .filter(reservation -> reservation.getDay().equals(day))
+                    .toList();
+            Thread.yield();
+            return reservations;
+        });
+        when(tableReservationRepository.save(any(TableReservation.class))).thenAnswer(invocation -> {
+            Thread.yield();
+            savedReservations.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        // No other instance, the database lock is always free and only the in-process stripes are contended
+        when(tableReservationRepository.tryLockTableDay(anyInt(), anyInt())).thenReturn(true);
+        TableBookingLockService lockService = new TableBookingLockService(tableReservationRepository, transactionManager,
+                true, 10_000);
+        tableReservationService = new TableReservationService(configService, tableService, tableReservationRepository,
+                customerService, lockService);
+    }
+
+    @Test
+    void parallelBookings_shouldNeverOverlapOnTheSameTable() throws Exception {
+        LocalDate day = ZonedDateTime.now().plusDays(1).toLocalDate();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS; i++) {
+                final int booking = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LocalTime startTime = LocalTime.of(12, 0).plusMinutes(15L * random.nextInt(32));
+                    LocalTime endTime = startTime.plusMinutes(30L * (1 + random.nextInt(4)));
+                    try {
+                        if (booking % 2 == 0) {
+                            tableReservationService.makeReservation(day, startTime, endTime, 1 + random.nextInt(6), 1L);
+                        } else {
+                            String tableId = TABLES.get(random.nextInt(TABLES.size())).getId();
+                            tableReservationService.makeReservation(day, startTime, endTime, 2, 1L, tableId);
+                        }
+                    } catch (InvalidReservationException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(BOOKINGS, savedReservations.size() + rejected.get());
+        assertFalse(savedReservations.isEmpty());
+        Map<String, List<TableReservation>> byTable = savedReservations.stream()
+                .collect(Collectors.groupingBy(TableReservation::getTableId));
+        for (List<TableReservation> reservations : byTable.values()) {
+            List<TableReservation> sorted = reservations.stream()
+                    .sorted(Comparator.comparing(TableReservation::getStartTime))
+                    .toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                TableReservation previous = sorted.get(i - 1);
+                TableReservation next = sorted.get(i);
+                assertFalse(next.getStartTime().isBefore(previous.getEndTime()),
+                        "Table " + next.getTableId() + " booked twice at " + next.getStartTime());
+            }
+        }
+    }
+}
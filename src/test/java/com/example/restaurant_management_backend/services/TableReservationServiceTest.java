@@ -1,5 +1,7 @@
 package com.example.restaurant_management_backend.services;
 
+import com.example.restaurant_management_backend.dto.CursorPageDTO;
+import com.example.restaurant_management_backend.dto.PossibleReservationHoursForDayDTO;
 import com.example.restaurant_management_backend.exceptions.InvalidReservationException;
 import com.example.restaurant_management_backend.jpa.model.Customer;
 import com.example.restaurant_management_backend.jpa.model.OpeningHour;
@@ -19,6 +21,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +38,8 @@ class TableReservationServiceTest {
     private TableReservationRepository tableReservationRepository;
     @Mock
     private CustomerUserDetailsService customerService;
+    @Mock
+    private TableBookingLockService tableBookingLockService;
 
     @BeforeEach
     void setUp() {
@@ -47,9 +52,11 @@ class TableReservationServiceTest {
             openingHour.setClosingTime(LocalTime.of(16, 0, 0));
             openingHours.add(openingHour);
         }
-        when(configService.getOpeningHours()).thenReturn(openingHours);
+        when(configService.getSnapshot()).thenReturn(new ConfigSnapshot(List.of(), openingHours));
         when(tableReservationRepository.findAllByDay(any())).thenReturn(Collections.emptyList());
         when(customerService.getCustomerByIdOrThrowException(anyLong())).thenReturn(new Customer());
+        when(tableBookingLockService.withTableLocks(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
 
@@ -58,10 +65,12 @@ class TableReservationServiceTest {
         LocalDate date = ZonedDateTime.now().plusDays(1).toLocalDate();
         int reservationDuration = 120;
         int minutesToAdd = 15;
-        when(tableService.countTablesWithGreaterOrEqualCapacity(4)).thenReturn(0);
-        when(tableService.countTablesWithGreaterOrEqualCapacity(3)).thenReturn(1);
-        when(tableService.countTablesWithGreaterOrEqualCapacity(2)).thenReturn(2);
-        when(tableService.countTablesWithGreaterOrEqualCapacity(1)).thenReturn(2);
+        Table tableFor3 = new Table("A", 3);
+        Table tableFor2 = new Table("B", 2);
+        when(tableService.findTablesWithGreaterOrEqualCapacity(4)).thenReturn(Collections.emptyList());
+        when(tableService.findTablesWithGreaterOrEqualCapacity(3)).thenReturn(List.of(tableFor3));
+        when(tableService.findTablesWithGreaterOrEqualCapacity(2)).thenReturn(List.of(tableFor2, tableFor3));
+        when(tableService.findTablesWithGreaterOrEqualCapacity(1)).thenReturn(List.of(tableFor2, tableFor3));
 
         List<LocalTime> timesFor4People = tableReservationService.checkPossibleHoursForDay(date, reservationDuration, minutesToAdd, 4);
         List<LocalTime> timesFor3People = tableReservationService.checkPossibleHoursForDay(date, reservationDuration, minutesToAdd, 3);
@@ -74,6 +83,7 @@ class TableReservationServiceTest {
         assertNotEquals(Collections.emptyList(), timesFor1People);
 
         TableReservation tableReservation = new TableReservation();
+        tableReservation.setTableId("A");
         tableReservation.setDay(date);
         tableReservation.setStartTime(LocalTime.of(12, 0, 0));
         tableReservation.setEndTime(LocalTime.of(14, 0, 0));
@@ -85,7 +95,10 @@ class TableReservationServiceTest {
         timesFor1People = tableReservationService.checkPossibleHoursForDay(date, reservationDuration, minutesToAdd, 1);
 
         assertEquals(Collections.emptyList(), timesFor4People);
-        assertEquals(List.of(LocalTime.of(9, 45, 0)), timesFor3People);
+        // Reservations may directly follow each other, 10:00-12:00 and 14:00-16:00 still fit around 12:00-14:00
+        assertEquals(List.of(LocalTime.of(9, 45), LocalTime.of(10, 0), LocalTime.of(14, 0)), timesFor3People);
+        assertEquals(timesFor1People, timesFor2People);
+        assertTrue(timesFor2People.contains(LocalTime.of(12, 0)));
         assertNotEquals(Collections.emptyList(), timesFor2People);
         assertNotEquals(Collections.emptyList(), timesFor1People);
     }
@@ -98,7 +111,7 @@ class TableReservationServiceTest {
         LocalTime endTime = LocalTime.of(14, 0);
         int numberOfPeople = 4;
 
-        when(tableService.countTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(0); // No available tables
+        when(tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(Collections.emptyList()); // No available tables
 
         assertThrows(InvalidReservationException.class, () ->
                 tableReservationService.makeReservation(date, startTime, endTime, numberOfPeople, 1L)
@@ -124,10 +137,11 @@ class TableReservationServiceTest {
         int numberOfPeople = 3;
 
         TableReservation existingReservation = new TableReservation();
+        existingReservation.setTableId("1");
         existingReservation.setStartTime(LocalTime.of(11, 30));
         existingReservation.setEndTime(LocalTime.of(13, 30));
         when(tableReservationRepository.findAllByDay(date)).thenReturn(List.of(existingReservation));
-        when(tableService.countTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(1); // Only one table
+        when(tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(List.of(new Table("1", 4))); // Only one table
 
         assertThrows(InvalidReservationException.class, () ->
                 tableReservationService.makeReservation(date, newStartTime, newEndTime, numberOfPeople, 1L)
@@ -156,7 +170,7 @@ class TableReservationServiceTest {
         int minutesToAdd = 15;
         int numberOfPeople = 2;
 
-        when(tableService.countTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(1); // One exact match table
+        when(tableService.findTablesWithGreaterOrEqualCapacity(numberOfPeople)).thenReturn(List.of(new Table("1", 2))); // One exact match table
         List<LocalTime> possibleTimes = tableReservationService.checkPossibleHoursForDay(date, reservationDuration, minutesToAdd, numberOfPeople);
 
         // Assuming the opening time is set to 09:45 and closing time to 16:00 (from the opening hours setUp)
@@ -181,4 +195,93 @@ class TableReservationServiceTest {
                 LocalTime.of(14, 0)
         ), possibleTimes);
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkPossibleHoursForDay_shouldCountBlockedTables_notConflictingReservations() {
+        LocalDate date = ZonedDateTime.now().plusDays(1).toLocalDate();
+        when(tableService.findTablesWithGreaterOrEqualCapacity(2)).thenReturn(List.of(new Table("1", 2), new Table("2", 2)));
+        // Two reservations on the same table leave the other table free for the whole day
+        when(tableReservationRepository.findAllByDay(date)).thenReturn(List.of(
+                reservation("1", LocalTime.of(10, 0), LocalTime.of(12, 0)),
+                reservation("1", LocalTime.of(12, 0), LocalTime.of(14, 0))));
+
+        List<LocalTime> possibleTimes = tableReservationService.checkPossibleHoursForDay(date, 360, 15, 2);
+
+        assertEquals(List.of(LocalTime.of(9, 45), LocalTime.of(10, 0)), possibleTimes);
+    }
+
+    @Test
+    void makeReservation_shouldPickTableFreeForWholeInterval() {
+        LocalDate date = ZonedDateTime.now().plusDays(1).toLocalDate();
+        when(tableService.findTablesWithGreaterOrEqualCapacity(2)).thenReturn(List.of(new Table("1", 2), new Table("2", 4)));
+        // The reservation on table 1 lies strictly inside the requested interval
+        when(tableReservationRepository.findAllByDay(date)).thenReturn(List.of(
+                reservation("1", LocalTime.of(12, 30), LocalTime.of(13, 0))));
+        when(tableReservationRepository.save(any(TableReservation.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        TableReservation result = tableReservationService.makeReservation(date, LocalTime.of(12, 0), LocalTime.of(14, 0), 2, 1L);
+
+        assertEquals("2", result.getTableId());
+    }
+
+    @Test
+    void checkPossibleHoursForDays_shouldLoadDataOnceForAllDays() {
+        LocalDate firstDay = ZonedDateTime.now().plusDays(1).toLocalDate();
+        LocalDate secondDay = firstDay.plusDays(1);
+        TableReservation allDay = reservation("1", LocalTime.of(9, 0), LocalTime.of(16, 0));
+        allDay.setDay(secondDay);
+        when(tableService.findTablesWithGreaterOrEqualCapacity(2)).thenReturn(List.of(new Table("1", 2)));
+        when(tableReservationRepository.findAllByDayBetween(firstDay, secondDay)).thenReturn(List.of(allDay));
+
+        List<PossibleReservationHoursForDayDTO> result = tableReservationService.checkPossibleHoursForDays(
+                List.of(firstDay, secondDay), 120, 15, 2);
+
+        assertEquals(2, result.size());
+        assertEquals(firstDay, result.get(0).date());
+        assertEquals(18, result.get(0).possibleStartTimes().size());
+        assertEquals(new PossibleReservationHoursForDayDTO(secondDay, List.of()), result.get(1));
+        verify(configService, times(1)).getSnapshot();
+        verify(tableService, times(1)).findTablesWithGreaterOrEqualCapacity(2);
+        verify(tableReservationRepository, never()).findAllByDay(any());
+    }
+
+    @Test
+    void getTableReservationsPage_shouldReturnNoCursorOnLastPage() {
+        TableReservation reservation = reservation("1", LocalTime.of(12, 0), LocalTime.of(14, 0));
+        reservation.setId(5L);
+        when(tableReservationRepository.findPage(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(reservation));
+
+        CursorPageDTO<TableReservation> page = tableReservationService.getTableReservationsPage(null, 20, 1L, null, null, null);
+
+        assertEquals(List.of(reservation), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getTableReservationsPage_shouldContinueAfterDayStartTimeAndIdOfCursor() {
+        LocalDate day = LocalDate.of(2024, 11, 1);
+        TableReservation evening = reservation("1", LocalTime.of(19, 0), LocalTime.of(21, 0));
+        evening.setDay(day);
+        evening.setId(3L);
+        TableReservation noon = reservation("2", LocalTime.of(12, 0), LocalTime.of(14, 0));
+        noon.setDay(day);
+        noon.setId(8L);
+        when(tableReservationRepository.findPage(eq(day.plusDays(1)), eq(LocalTime.of(18, 30)), eq(7L), any(), any(),
+                any(), any(), any())).thenReturn(List.of(evening, noon));
+
+        CursorPageDTO<TableReservation> page =
+                tableReservationService.getTableReservationsPage("2024-11-02T18:30_7", 1, null, null, null, null);
+
+        assertEquals(List.of(evening), page.items());
+        assertEquals("2024-11-01T19:00_3", page.nextCursor());
+    }
+
+    private TableReservation reservation(String tableId, LocalTime startTime, LocalTime endTime) {
+        TableReservation reservation = new TableReservation();
+        reservation.setTableId(tableId);
+        reservation.setStartTime(startTime);
+        reservation.setEndTime(endTime);
+        return reservation;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.restaurant_management_backend.services;
+
+import com.example.restaurant_management_backend.configuration.security.AuthenticatedCustomer;
+import com.example.restaurant_management_backend.jpa.model.PrivilegeName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserDetailsCacheTest {
+
+    private final UserDetailsCache cache = new UserDetailsCache(2, 60);
+
+    @Test
+    public void testGet_ShouldLoadOnce_WhenEntryIsCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+        AuthenticatedCustomer cached = cache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+
+        assertThat(cached.getId()).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testGet_ShouldLoadAgain_WhenEntryExpired() {
+        UserDetailsCache expiringCache = new UserDetailsCache(2, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        expiringCache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+        expiringCache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testGet_ShouldEvictOldestEntry_WhenFull() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+        cache.get("b@example.com", () -> load(loads, 2L, "b@example.com"));
+        cache.get("c@example.com", () -> load(loads, 3L, "c@example.com"));
+
+        cache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    public void testInvalidate_ShouldRemoveEntryByEmailOrCustomerId() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a@example.com", () -> load(loads, 1L, "a@example.com"));
+        cache.get("b@example.com", () -> load(loads, 2L, "b@example.com"));
+
+        cache.invalidate("a@example.com");
+        cache.invalidateCustomer(2L);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void testGet_ShouldNotCache_WhenInvalidatedDuringLoad() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a@example.com", () -> {
+            AuthenticatedCustomer customer = load(loads, 1L, "a@example.com");
+            cache.invalidateCustomer(1L);
+            return customer;
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private static AuthenticatedCustomer load(AtomicInteger loads, Long customerId, String email) {
+        loads.incrementAndGet();
+        return new AuthenticatedCustomer(customerId, email, PrivilegeName.USER_PRIVILEGE);
+    }
+}